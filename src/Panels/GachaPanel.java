@@ -1,8 +1,12 @@
 package Panels;
 
 import main.MainApplication;
+import model.CoinLedger;
 import model.GameManager;
 import model.GachaItem;
+import model.GachaMachine;
+import model.GachaOdds;
+import model.Player;
 import exceptions.NotEnoughCoinsException;
 import exceptions.InventoryFullException;
 
@@ -25,6 +29,9 @@ public class GachaPanel extends JPanel {
     private JLabel coinsLabel;
     private JLabel pityLabel;
     private JLabel pityProgressLabel; // ✅ ADD: For visual progress bar
+    private JButton multiPullButton; // Created in code, not part of the form
+
+    private static final int MULTI_PULL_COUNT = 10;
 
     private MainApplication mainApp;
     private GameManager game;
@@ -42,6 +49,18 @@ public class GachaPanel extends JPanel {
             // Add it to your gachaPanel if needed, or create a new panel
         }
 
+        // Odds label and multi-pull button live under the form so the form layout stays untouched
+        multiPullButton = new JButton();
+        JPanel multiPullPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        multiPullPanel.setOpaque(false);
+        multiPullPanel.add(multiPullButton);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setOpaque(false);
+        southPanel.add(pityProgressLabel, BorderLayout.NORTH);
+        southPanel.add(multiPullPanel, BorderLayout.CENTER);
+        add(southPanel, BorderLayout.SOUTH);
+
         initializeComponents();
         setupEventHandlers();
         styleComponents();
@@ -157,6 +176,7 @@ public class GachaPanel extends JPanel {
         // Style buttons
         styleGachaButton(pullButton, "🎲 PULL GACHA", new Color(180, 60, 60));
         styleGachaButton(backButton, "🔙 BACK TO GAME", new Color(80, 70, 60));
+        styleGachaButton(multiPullButton, "🎲 PULL x" + MULTI_PULL_COUNT, new Color(150, 50, 120));
     }
 
     private void styleLabel(JLabel label, String text, Color color) {
@@ -226,6 +246,12 @@ public class GachaPanel extends JPanel {
                 pullGacha();
             });
         }
+        if (multiPullButton != null) {
+            multiPullButton.addActionListener(e -> {
+                mainApp.getAudioManager().playSound(AudioFiles.CLICK);
+                pullGachaMulti(MULTI_PULL_COUNT);
+            });
+        }
         if (backButton != null) {
             backButton.addActionListener(e -> {
                 mainApp.getAudioManager().playSound(AudioFiles.CLICK);
@@ -252,8 +278,8 @@ public class GachaPanel extends JPanel {
                 return;
             }
 
-            // 3. Check if inventory has space
-            if (game.getCurrentPlayer().getCurrentInventorySize() >= game.getCurrentPlayer().getMaxInventorySize()) {
+            // 3. Check if the pull could land: a free slot, or an item it would stack onto
+            if (!game.getCurrentPlayer().hasRoomForAny(game.getCurrentGachaMachine().getItemPool())) {
                 mainApp.showMessage("❌ Inventory full!\nClear some space before pulling.");
                 return;
             }
@@ -263,19 +289,24 @@ public class GachaPanel extends JPanel {
                 pullButton.setEnabled(false);
                 pullButton.setText("⏳ PULLING...");
             }
+            if (multiPullButton != null) {
+                multiPullButton.setEnabled(false);
+            }
 
             // 5. Use timer for animation effect
             Timer pullTimer = new Timer(800, new ActionListener() {
                 @Override
                 public void actionPerformed(ActionEvent e) {
-                    try {
+                    // Paid inside a transaction: unless the item lands in the inventory, coins and pity go back
+                    try (CoinLedger.Transaction payment = game.getCurrentPlayer().beginCoins()) {
                         // Perform the actual gacha pull
-                        GachaItem pulledItem = game.getCurrentGachaMachine().pull(game.getCurrentPlayer());
+                        GachaItem pulledItem = game.getCurrentGachaMachine().pull(game.getCurrentPlayer(), payment);
 
                         if (pulledItem != null) {
                             try {
                                 // Add item to inventory
                                 game.getCurrentPlayer().addItem(pulledItem);
+                                payment.commit();
 
                                 // Display the result
                                 String rarityDisplay = "";
@@ -318,20 +349,24 @@ public class GachaPanel extends JPanel {
                                 mainApp.showMessage(message);
 
                             } catch (InventoryFullException ex) {
-                                // This shouldn't happen since we checked earlier, but handle it anyway
+                                // Drew an item with no slot left to start a new stack: pay the pull back
+                                int cost = game.getCurrentGachaMachine().getPullCost();
+                                payment.rollback();
                                 if (resultArea != null) {
                                     resultArea.setText(
                                             "❌ INVENTORY FULL!\n\n" +
                                                     "You pulled: " + pulledItem.getName() + "\n" +
                                                     "But inventory is full!\n\n" +
+                                                    "🪙 " + cost + " coins refunded.\n" +
                                                     "Go to Inventory panel to discard items."
                                     );
                                     resultArea.setForeground(Color.RED);
                                 }
-                                mainApp.showMessage("❌ Inventory full! Item lost.");
+                                mainApp.showMessage("❌ Inventory full! Item lost, coins refunded.");
                             }
                         } else {
                             // This should never happen if gacha machine is properly initialized
+                            payment.rollback();
                             mainApp.showMessage("⚠️ Gacha machine is empty! Try another room.");
                         }
 
@@ -366,6 +401,132 @@ public class GachaPanel extends JPanel {
         }
     }
 
+    /**
+     * Multi-pull: one coin debit, one animation and one inventory update for the whole batch
+     */
+    private void pullGachaMulti(int count) {
+        try {
+            GachaMachine machine = game.getCurrentGachaMachine();
+            Player player = game.getCurrentPlayer();
+
+            if (machine == null) {
+                mainApp.showMessage("❌ No gacha machine here!\nMove to a room with a gacha machine.");
+                return;
+            }
+
+            if (!machine.canPull(player, count)) {
+                mainApp.showMessage(String.format("❌ Need %d coins for x%d!\nYou have: %d",
+                        machine.getPullCost() * count, count, player.getCoinBalance()));
+                return;
+            }
+
+            // Copies stack, so how many slots the batch needs is only known once it is drawn;
+            // if it does not fit, the transaction below pays it back
+            if (!player.hasRoomForAny(machine.getItemPool())) {
+                mainApp.showMessage("❌ Inventory full!\nClear some space before pulling.");
+                return;
+            }
+
+            mainApp.getAudioManager().playSound(AudioFiles.GACHA);
+            setPullButtonsEnabled(false);
+            if (multiPullButton != null) {
+                multiPullButton.setText("⏳ PULLING x" + count + "...");
+            }
+
+            Timer pullTimer = new Timer(800, e -> {
+                // One transaction for the whole batch: if the items do not fit, nothing was added
+                // and closing it pays everything back and restores the pity counter
+                try (CoinLedger.Transaction payment = player.beginCoins()) {
+                    GachaItem[] pulledItems = machine.pullMany(player, count, payment);
+                    player.addItems(pulledItems);
+                    payment.commit();
+
+                    StringBuilder text = new StringBuilder();
+                    text.append("🎰 x").append(count).append(" PULL RESULTS 🎰\n\n");
+
+                    Rarity best = Rarity.COMMON;
+                    for (GachaItem item : pulledItems) {
+                        if (item == null) continue;
+                        if (item.getRarity().compareTo(best) > 0) best = item.getRarity();
+
+                        String itemIcon = item.getItemType() == ItemType.KEY ? "🔑 " : "🛠️ ";
+                        text.append(rarityBadge(item.getRarity())).append(" ")
+                                .append(itemIcon).append(item.getName()).append("\n");
+                    }
+
+                    text.append("\n✅ All items added to inventory!\n\n")
+                            .append("🎒 ").append(player.getInventoryStatus()).append("\n")
+                            .append("🪙 Coins left: ").append(player.getCoinBalance());
+
+                    if (resultArea != null) {
+                        resultArea.setText(text.toString());
+                        resultArea.setForeground(rarityColor(best));
+                        resultArea.setCaretPosition(0);
+                    }
+
+                    if (best == Rarity.EPIC) {
+                        mainApp.getAudioManager().playSound(AudioFiles.SUCCESS);
+                        mainApp.showMessage("🎉🎉🎉 EPIC ITEM IN YOUR x" + count + " PULL! 🎉🎉🎉");
+                    }
+
+                } catch (NotEnoughCoinsException ex) {
+                    mainApp.showMessage("❌ Unexpected error: " + ex.getMessage());
+                } catch (InventoryFullException ex) {
+                    mainApp.showMessage("❌ " + ex.getMessage() + "\nItems lost, coins refunded.");
+                } catch (Exception ex) {
+                    mainApp.showMessage("❌ Gacha pull failed: " + ex.getMessage());
+                    ex.printStackTrace();
+                } finally {
+                    setPullButtonsEnabled(true);
+                    refresh();
+                    ((Timer) e.getSource()).stop();
+                }
+            });
+            pullTimer.setRepeats(false);
+            pullTimer.start();
+
+        } catch (Exception e) {
+            mainApp.showMessage("❌ Error: " + e.getMessage());
+            setPullButtonsEnabled(true);
+            refresh();
+        }
+    }
+
+    private void setPullButtonsEnabled(boolean enabled) {
+        if (pullButton != null) pullButton.setEnabled(enabled);
+        if (multiPullButton != null) multiPullButton.setEnabled(enabled);
+    }
+
+    private String rarityBadge(Rarity rarity) {
+        switch (rarity) {
+            case EPIC: return "✨ EPIC  ";
+            case RARE: return "🌟 RARE  ";
+            default:   return "⭐ COMMON";
+        }
+    }
+
+    private Color rarityColor(Rarity rarity) {
+        switch (rarity) {
+            case EPIC: return new Color(255, 215, 0); // Gold
+            case RARE: return new Color(100, 200, 255); // Blue
+            default:   return Color.WHITE;
+        }
+    }
+
+    // Per-item odds, shown when hovering the pity label
+    private String buildOddsTooltip(GachaMachine machine) {
+        GachaOdds odds = machine.getOdds();
+        int pity = machine.getTotalPullsWithoutEpic();
+
+        StringBuilder tooltip = new StringBuilder("<html><b>Exact odds from here</b><br>");
+        odds.expectedCoinsPerItem(pity).forEach((item, coins) -> tooltip.append(String.format(
+                "%s (%s): next pull %.1f%%, ~%.0f coins<br>",
+                item.getName(), item.getRarity(), 100 * odds.nextPullChance(item, pity), coins)));
+        tooltip.append(String.format("Any time machine part: ~%.0f coins</html>",
+                odds.expectedCoinsForAnyTimeMachinePart(pity)));
+        return tooltip.toString();
+    }
+
     public void refresh() {
         if (game.getCurrentGachaMachine() != null) {
             if (machineLabel != null) {
@@ -390,12 +551,22 @@ public class GachaPanel extends JPanel {
                     pityLabel.setForeground(new Color(150, 255, 255));
                 }
                 pityLabel.setText(pityText);
+                pityLabel.setToolTipText(buildOddsTooltip(game.getCurrentGachaMachine()));
+            }
+
+            // Exact odds instead of the static pity bar
+            if (pityProgressLabel != null) {
+                GachaOdds odds = game.getCurrentGachaMachine().getOdds();
+                pityProgressLabel.setText(String.format("🎯 Next pull EPIC: %.1f%% | ~%.0f coins to next EPIC",
+                        100 * odds.nextPullChance(Rarity.EPIC, totalPullsWithoutEpic),
+                        odds.expectedPullsToRarity(Rarity.EPIC, totalPullsWithoutEpic) * odds.getPullCost()));
             }
         }
 
         int coins = game.getCurrentPlayer().getCoinBalance();
-        int inventorySize = game.getCurrentPlayer().getCurrentInventorySize();
-        int maxInventory = game.getCurrentPlayer().getMaxInventorySize();
+        GachaMachine currentMachine = game.getCurrentGachaMachine();
+        boolean hasRoom = currentMachine == null
+                || game.getCurrentPlayer().hasRoomForAny(currentMachine.getItemPool());
 
         if (coinsLabel != null) {
             coinsLabel.setText("🪙 Coins: " + coins);
@@ -409,13 +580,13 @@ public class GachaPanel extends JPanel {
         }
 
         if (pullButton != null) {
-            boolean canPull = coins >= 20 && inventorySize < maxInventory;
+            boolean canPull = coins >= 20 && hasRoom;
             pullButton.setEnabled(canPull);
 
             if (canPull) {
                 pullButton.setText("🎲 PULL GACHA (20 coins)");
                 pullButton.setBackground(new Color(180, 60, 60, 220));
-            } else if (inventorySize >= maxInventory) {
+            } else if (!hasRoom) {
                 pullButton.setText("❌ INVENTORY FULL");
                 pullButton.setBackground(new Color(100, 100, 100, 180));
             } else {
@@ -424,6 +595,26 @@ public class GachaPanel extends JPanel {
             }
         }
 
+        if (multiPullButton != null) {
+            GachaMachine machine = game.getCurrentGachaMachine();
+            int batchCost = machine != null ? machine.getPullCost() * MULTI_PULL_COUNT : 0;
+            boolean canPullBatch = machine != null
+                    && machine.canPull(game.getCurrentPlayer(), MULTI_PULL_COUNT)
+                    && hasRoom;
+            multiPullButton.setEnabled(canPullBatch);
+
+            if (canPullBatch) {
+                multiPullButton.setText("🎲 PULL x" + MULTI_PULL_COUNT + " (" + batchCost + " coins)");
+                multiPullButton.setBackground(new Color(150, 50, 120, 220));
+            } else if (!hasRoom) {
+                multiPullButton.setText("❌ INVENTORY FULL");
+                multiPullButton.setBackground(new Color(100, 100, 100, 180));
+            } else {
+                multiPullButton.setText("❌ NEED " + batchCost + " COINS");
+                multiPullButton.setBackground(new Color(100, 100, 100, 180));
+            }
+        }
+
         if (resultArea != null && (resultArea.getText().isEmpty() || resultArea.getText().contains("GACHA MACHINE"))) {
             resultArea.setText("🎰 GACHA MACHINE 🎰\n\n" +
                     "• 20 coins per pull\n" +
@@ -121,7 +121,7 @@ public class GamePanel extends JPanel {
         // 1. Security: If panel is hidden, DO NOT touch audio.
         if (!this.isShowing()) return;
 
-        int roomIndex = game.getCurrentRoomIndex();
+        int roomIndex = Math.min(game.getCurrentRoomIndex(), 4); // rifts keep the Nexus music
         String correctMusicForThisRoom = AudioFiles.getRoomMusic(roomIndex);
         String actuallyPlaying = mainApp.getAudioManager().getCurrentMusic();
 
@@ -145,7 +145,7 @@ public class GamePanel extends JPanel {
 
     private void updateBackground() {
         System.out.println("\n=== UPDATE BACKGROUND ===");
-        int roomIndex = game.getCurrentRoomIndex();
+        int roomIndex = Math.min(game.getCurrentRoomIndex(), roomBackgrounds.length - 1); // rifts use the Nexus
         System.out.println("Current Game Room Index: " + roomIndex);
 
         // REMOVED the "if (roomIndex == lastRoomIndex)" check.
@@ -606,13 +606,12 @@ public class GamePanel extends JPanel {
             return;
         }
 
-        int currentIndex = game.getCurrentRoomIndex();
-        if (currentIndex < game.getRooms().size() - 1) {
+        if (game.hasNextRoom()) {
             // 1. Move the logic
             String result = game.moveToNextRoom();
 
-            // 2. Show messages
-            if (game.checkWinCondition()) {
+            // 2. Show messages (the win message only on reaching the Nexus, not for every rift)
+            if (game.getCurrentRoomIndex() <= 4 && game.checkWinCondition()) {
                 Map<String, Object> winDetails = game.checkWinConditionDetailed();
                 mainApp.showMessage(winDetails.get("message").toString());
             } else {
@@ -678,8 +677,7 @@ public class GamePanel extends JPanel {
                 puzzleBtn.setEnabled(!game.getAvailablePuzzles().isEmpty());
                 gachaBtn.setEnabled(game.canAffordGachaPull());
 
-                boolean canGoNext = game.isCurrentRoomComplete() &&
-                        game.getCurrentRoomIndex() < game.getRooms().size() - 1;
+                boolean canGoNext = game.isCurrentRoomComplete() && game.hasNextRoom();
                 nextRoomBtn.setEnabled(canGoNext);
                 nextRoomBtn.setText(canGoNext ? "🚪 NEXT ROOM →" : "Complete Puzzles First");
 
@@ -724,32 +722,32 @@ public class GamePanel extends JPanel {
                         "════════════════════════════════════════\n\n" +
                         "You stand before a shimmering portal of pure temporal energy.\n" +
                         "The air crackles with possibilities of untold adventures.\n\n" +
-                        "✨ This gateway leads to:\n" +
-                        "   • Ancient temporal civilizations\n" +
-                        "   • Parallel reality exploration\n" +
-                        "   • Future dystopia intervention\n" +
-                        "   • Time paradox resolution\n\n" +
+                        "✨ Beyond this gateway, rift after rift awaits:\n" +
+                        "   • Clock readings drifting out of sync\n" +
+                        "   • Letter ciphers in the scientist's style\n" +
+                        "   • Binary beacons from lost moments\n\n" +
                         "════════════════════════════════════════\n" +
-                        "📋 EXPANSION PREVIEW:\n" +
-                        "The adventure continues in future updates!\n\n" +
-                        "🔧 Development Status: COMING SOON\n" +
-                        "📅 Estimated: Next Semester\n\n" +
+                        "📋 CURRENT MISSION:\n" +
+                        game.getCurrentObjective() + "\n" +
+                        "════════════════════════════════════════\n\n" +
                         "🎮 Available Actions:";
 
         roomDescriptionTextArea.setText(roomText);
         roomDescriptionTextArea.setCaretPosition(0);
 
-        puzzleBtn.setEnabled(false);
-        puzzleBtn.setText("🧩 Expansion Content (Coming Soon)");
+        int available = game.getAvailablePuzzles().size();
+        puzzleBtn.setEnabled(available > 0);
+        puzzleBtn.setText("🧩 Solve Puzzles (" + available + " available)");
 
         gachaBtn.setEnabled(game.canAffordGachaPull());
         gachaBtn.setText("🎰 Special Nexus Gacha");
 
-        nextRoomBtn.setEnabled(false);
-        nextRoomBtn.setText("🌌 Gateway Active");
+        boolean canGoNext = game.isCurrentRoomComplete();
+        nextRoomBtn.setEnabled(canGoNext);
+        nextRoomBtn.setText(canGoNext ? "🌌 ENTER THE RIFT →" : "Complete Puzzles First");
 
         if (puzzleAvailableLabel != null) {
-            puzzleAvailableLabel.setText("🧩 Puzzles: Expansion Content");
+            puzzleAvailableLabel.setText("🧩 Puzzles: " + available + " available");
         }
     }
 }
\ No newline at end of file
@@ -262,6 +262,8 @@ public class InventoryPanel extends JPanel {
         details.append("══════════════════════════════\n\n");
 
         details.append("📛 ").append(selectedItem.getName()).append("\n");
+        int copies = game.getCurrentPlayer().getItemCount(selectedItem);
+        if (copies > 1) details.append("📦 Quantity: ").append(copies).append("\n");
         details.append("⭐ Rarity: ").append(selectedItem.getRarity()).append("\n");
         details.append("📖 ").append(selectedItem.getDescription()).append("\n\n");
 
@@ -352,13 +354,14 @@ public class InventoryPanel extends JPanel {
     }
 
     public void refresh() {
-        List<GachaItem> inventory = game.getCurrentPlayer().getInventory();
+        List<ItemStack> inventory = game.getCurrentPlayer().getStacks();
 
-        // Update slot buttons
+        // Update slot buttons, one per stack
         for (int i = 0; i < allSlots.length; i++) {
             if (allSlots[i] != null) {
                 if (i < inventory.size()) {
-                    GachaItem item = inventory.get(i);
+                    GachaItem item = inventory.get(i).getHead();
+                    int count = inventory.get(i).getCount();
                     String emoji = item.getItemType() == ItemType.KEY ? "🔑" : "🛠️";
 
                     // Shorten long item names
@@ -367,10 +370,12 @@ public class InventoryPanel extends JPanel {
                         displayName = displayName.substring(0, 7) + ".";
                     }
 
-                    allSlots[i].setText("<html><center>" + emoji + "<br>" + displayName + "</center></html>");
+                    String quantity = count > 1 ? "<br>x " + count : "";
+                    allSlots[i].setText("<html><center>" + emoji + "<br>" + displayName + quantity + "</center></html>");
                     allSlots[i].setBackground(getRarityColor(item.getRarity()));
                     allSlots[i].setForeground(Color.BLACK);
-                    allSlots[i].setToolTipText(item.getName() + " (" + item.getRarity() + ")");
+                    allSlots[i].setToolTipText(item.getName() + " (" + item.getRarity() + ")"
+                            + (count > 1 ? " x " + count : ""));
                 } else {
                     allSlots[i].setText("➕");
                     allSlots[i].setBackground(new Color(60, 50, 40, 220));
@@ -388,11 +393,17 @@ public class InventoryPanel extends JPanel {
 
         // Update details if no selection
         if (selectedItem == null && itemDetails != null) {
+            Player player = game.getCurrentPlayer();
+            int keys = player.query().ofType(ItemType.KEY).count();
+            int tools = player.query().ofType(ItemType.TOOL).count();
+            int brokenTools = tools - player.query().ofType(ItemType.TOOL).usable().count();
             itemDetails.setText("══════════════════════════════\n" +
                     "      BAG CONTENTS            \n" +
                     "══════════════════════════════\n\n" +
-                    "Items: " + inventory.size() + "/20\n" +
-                    "Time Parts: " + game.getCurrentPlayer().getTimeMachinePartsCollected() + "/6\n\n" +
+                    "Slots: " + inventory.size() + "/20 (" + player.getTotalItemCount() + " items)\n" +
+                    "Keys: " + keys + " • Tools: " + tools +
+                    (brokenTools > 0 ? " (" + brokenTools + " worn out)" : "") + "\n" +
+                    "Time Parts: " + player.getTimeMachinePartsCollected() + "/6\n\n" +
                     "Click any item to inspect.");
         }
 
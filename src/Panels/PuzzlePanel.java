@@ -517,17 +517,18 @@ public class PuzzlePanel extends JPanel {
         }
 
         if (currentPuzzle != null) {
+            currentPuzzle.markShown();
             if (puzzleDescription != null) {
                 puzzleDescription.setText("📋 " + currentPuzzle.getDescription() +
                         "\n\n" + currentPuzzle.getDifficultyStars() + " Difficulty");
             }
 
             if (hintTextArea != null) {
-                hintTextArea.setText("💡 HINT:\n" + currentPuzzle.getProgressiveHint());
+                hintTextArea.setText("💡 HINT:\n" + PuzzleTypes.of(currentPuzzle).hint(currentPuzzle));
             }
 
             if (coinRewardLabel != null) {
-                coinRewardLabel.setText("💰 Reward: " + currentPuzzle.getCoinReward() + " coins");
+                coinRewardLabel.setText("💰 Reward: " + PuzzleTypes.of(currentPuzzle).reward(currentPuzzle) + " coins");
             }
 
             if (difficultyLabel != null) {
@@ -601,9 +602,7 @@ public class PuzzlePanel extends JPanel {
         if (toolsComboBox == null || currentPuzzle == null) return;
 
         toolsComboBox.removeAllItems();
-        List<GachaItem> helpfulItems = game.getCurrentPlayer().findHelpfulItems(currentPuzzle);
-
-        for (GachaItem item : helpfulItems) {
+        for (GachaItem item : game.getCurrentPlayer().query().helpfulFor(currentPuzzle).usable().items()) {
             toolsComboBox.addItem(item);
         }
 
@@ -645,31 +644,20 @@ public class PuzzlePanel extends JPanel {
             return;
         }
 
-        boolean solved = false;
-        String puzzleType = "";
-
-        if (currentPuzzle instanceof RiddlePuzzle) {
-            RiddlePuzzle riddle = (RiddlePuzzle) currentPuzzle;
-            solved = riddle.checkAnswer(answer);
-            puzzleType = "riddle";
-        } else if (currentPuzzle instanceof CodePuzzle) {
-            CodePuzzle codePuzzle = (CodePuzzle) currentPuzzle;
-            solved = codePuzzle.validateCode(answer);
-            puzzleType = "code";
-        } else if (currentPuzzle instanceof LockPuzzle) {
-            mainApp.showMessage("🔒 This is a lock puzzle! You need to use a key item from your inventory.");
-            return;
-        }
-
-        if (solved) {
-            handlePuzzleSolved();
-        } else {
-            currentPuzzle.recordAttempt();
-            mainApp.showMessage("Incorrect " + puzzleType + "! Try again. Attempts: " +
-                    currentPuzzle.getPuzzleStats().get("attempts"));
-            if (hintTextArea != null) {
-                hintTextArea.setText("💡 HINT:\n" + currentPuzzle.getProgressiveHint());
-            }
+        // The puzzle's type knows how to check it, see PuzzleTypes
+        PuzzleType.SolveResult result = PuzzleTypes.of(currentPuzzle).submitAnswer(currentPuzzle, answer);
+        switch (result.getOutcome()) {
+            case SOLVED:
+                handlePuzzleSolved();
+                break;
+            case WRONG:
+                mainApp.showMessage(result.getMessage());
+                if (hintTextArea != null) {
+                    hintTextArea.setText("💡 HINT:\n" + result.getHint());
+                }
+                break;
+            default:
+                mainApp.showMessage(result.getMessage());
         }
     }
 
@@ -713,14 +701,13 @@ public class PuzzlePanel extends JPanel {
         mainApp.getAudioManager().playSound(AudioFiles.SUCCESS);
         mainApp.getAudioManager().playSound(AudioFiles.COIN);
 
-        int reward = currentPuzzle.getCoinReward();
+        int reward = PuzzleTypes.of(currentPuzzle).reward(currentPuzzle);
         game.getCurrentPlayer().earnCoins(reward);
 
 
-        java.util.Map<String, Object> stats = currentPuzzle.getPuzzleStats();
         String message = "🎉 PUZZLE SOLVED!\n" +
                 "💰 Earned: " + reward + " coins\n" +
-                "⚡ Attempts: " + stats.get("attempts") + "\n" +
+                "⚡ Attempts: " + currentPuzzle.getAttempts() + "\n" +
                 "⭐ Difficulty: " + currentPuzzle.getDifficultyStars();
 
         mainApp.showMessage(message);
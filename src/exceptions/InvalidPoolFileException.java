@@ -0,0 +1,18 @@
+package exceptions;
+
+public class InvalidPoolFileException extends GameException {
+    private int lineNumber;
+
+    public InvalidPoolFileException(int lineNumber, String problem) {
+        super("Invalid gacha pool file, line " + lineNumber + ": " + problem);
+        this.lineNumber = lineNumber;
+    }
+
+    public InvalidPoolFileException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,192 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Checks typed answers against a puzzle's answer and its alternates.
+ * Answers are compiled once, when the puzzle is built, so checking an attempt
+ * allocates nothing.
+ *
+ * Both sides are normalized first: case is ignored, every run of spaces or
+ * punctuation counts as one space, and leading zeros of numbers are dropped,
+ * except in a number that directly follows another one ("1:05", "3.07"),
+ * where the zeros are part of the value. "Rebuild  Machine",
+ * "rebuild-machine" and "rebuild machine" are the same, and so are "1:00 " and
+ * "01:00", but "1:0" is not "1:00".
+ *
+ * A matcher can also accept answers a few typos off (Levenshtein distance).
+ * Each answer keeps per-character bit masks so the distance is computed with
+ * Myers' bit-parallel algorithm, one step per typed character.
+ */
+public final class AnswerMatcher {
+    private static final int MAX_BITS = Long.SIZE; // longer answers only match exactly
+
+    // Normalized input, per thread so checking allocates nothing once the buffer is big enough
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[128]);
+
+    private final Answer[] answers;
+    private final int maxEdits;
+
+    // One accepted answer, normalized, with its match masks
+    private static final class Answer {
+        final char[] text;
+        final long[] asciiMasks = new long[128]; // bit i set = text[i] is that character
+        final char[] otherChars;                 // non-ASCII characters of the answer ...
+        final long[] otherMasks;                 // ... and their masks
+
+        Answer(char[] text) {
+            this.text = text;
+            char[] others = new char[text.length];
+            long[] masks = new long[text.length];
+            int otherCount = 0;
+            for (int i = 0; i < Math.min(text.length, MAX_BITS); i++) {
+                char c = text[i];
+                if (c < 128) {
+                    asciiMasks[c] |= 1L << i;
+                    continue;
+                }
+                int slot = 0;
+                while (slot < otherCount && others[slot] != c) slot++;
+                if (slot == otherCount) others[otherCount++] = c;
+                masks[slot] |= 1L << i;
+            }
+            this.otherChars = Arrays.copyOf(others, otherCount);
+            this.otherMasks = Arrays.copyOf(masks, otherCount);
+        }
+
+        long mask(char c) {
+            if (c < 128) return asciiMasks[c];
+            for (int i = 0; i < otherChars.length; i++) {
+                if (otherChars[i] == c) return otherMasks[i];
+            }
+            return 0L;
+        }
+    }
+
+    /**
+     * @param answer     the expected answer
+     * @param alternates other accepted answers, may be null
+     * @param maxEdits   how many typos (inserted, missing or wrong characters) are forgiven
+     */
+    public AnswerMatcher(String answer, String[] alternates, int maxEdits) {
+        if (answer == null) throw new IllegalArgumentException("Answer cannot be null");
+        if (maxEdits < 0) throw new IllegalArgumentException("maxEdits cannot be negative: " + maxEdits);
+
+        int count = 1 + (alternates == null ? 0 : alternates.length);
+        this.answers = new Answer[count];
+        this.answers[0] = new Answer(normalize(answer).toCharArray());
+        for (int i = 1; i < count; i++) {
+            this.answers[i] = new Answer(normalize(alternates[i - 1]).toCharArray());
+        }
+        this.maxEdits = maxEdits;
+    }
+
+    // Exact matches only (after normalization), e.g. for codes where a typo is a different code
+    public static AnswerMatcher exact(String answer, String[] alternates) {
+        return new AnswerMatcher(answer, alternates, 0);
+    }
+
+    // Word answers forgive a typo from 7 letters on and two from 12.
+    // Shorter words are too close to other words ("clock", "block").
+    public static AnswerMatcher forgiving(String answer, String[] alternates) {
+        int length = normalize(answer).length();
+        return new AnswerMatcher(answer, alternates, length >= 12 ? 2 : length >= 7 ? 1 : 0);
+    }
+
+    // === MATCHING ===
+    public boolean matches(CharSequence input) {
+        if (input == null) return false;
+
+        char[] buffer = BUFFER.get();
+        if (buffer.length < input.length()) {
+            buffer = new char[Math.max(input.length(), buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        int length = normalizeInto(input, buffer);
+
+        for (Answer answer : answers) {
+            if (within(answer, buffer, length)) return true;
+        }
+        return false;
+    }
+
+    private boolean within(Answer answer, char[] input, int length) {
+        int m = answer.text.length;
+        if (Math.abs(m - length) > maxEdits) return false;
+        if (maxEdits == 0 || m > MAX_BITS) {
+            if (m != length) return false;
+            for (int i = 0; i < m; i++) {
+                if (input[i] != answer.text[i]) return false;
+            }
+            return true;
+        }
+        if (m == 0) return length <= maxEdits;
+
+        // Myers / Hyyrö: column of the edit distance table as +1/-1 bit vectors
+        long last = 1L << (m - 1);
+        long pv = m == MAX_BITS ? -1L : (1L << m) - 1;
+        long mv = 0L;
+        int score = m;
+        for (int j = 0; j < length; j++) {
+            long eq = answer.mask(input[j]);
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) score++;
+            else if ((mh & last) != 0) score--;
+
+            // Not even all remaining characters matching could bring it back under the limit
+            if (score - (length - j - 1) > maxEdits) return false;
+
+            ph = (ph << 1) | 1L; // whole answer against the whole input
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score <= maxEdits;
+    }
+
+    // === NORMALIZATION ===
+    public static String normalize(CharSequence text) {
+        char[] out = new char[text.length()];
+        return new String(out, 0, normalizeInto(text, out));
+    }
+
+    // Writes the normalized text to out (at most text.length() chars) and returns its length
+    private static int normalizeInto(CharSequence text, char[] out) {
+        int length = 0;
+        boolean pendingSpace = false;
+        boolean leadingZeros = false; // inside the zeros that start a number, if they may be dropped
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                pendingSpace = length > 0;
+                previous = ' ';
+                continue;
+            }
+
+            if (Character.isDigit(c)) {
+                if (!Character.isDigit(previous)) {
+                    // A field after "1:" or "3." keeps its zeros
+                    leadingZeros = length == 0 || !Character.isDigit(out[length - 1]);
+                }
+                previous = c;
+                if (leadingZeros && c == '0' && i + 1 < text.length() && Character.isDigit(text.charAt(i + 1))) {
+                    continue;
+                }
+                leadingZeros = false;
+            } else {
+                previous = c;
+            }
+
+            if (pendingSpace) {
+                out[length++] = ' ';
+                pendingSpace = false;
+            }
+            out[length++] = Character.toLowerCase(c);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bit flags describing what an item can do. Every item definition carries the
+ * OR of its flags and every puzzle says which flags it reacts to, so "can this
+ * item help here?" is a single AND instead of instanceof and string checks.
+ *
+ * Tool types and key colours get a bit when the first item definition with
+ * them is created (ofTool, ofKey). Everything else only looks bits up, so
+ * queries with unknown names return 0 instead of using up one of the 64 bits.
+ * Bits are only valid inside one run and are never saved.
+ */
+public final class Capability {
+    private static final ConcurrentHashMap<String, Long> BITS = new ConcurrentHashMap<>();
+    private static int nextBit = 0;
+
+    public static final long KEY = bit("key");             // every key
+    public static final long MASTER_KEY = bit("master_key"); // opens any lock
+    public static final long LOCKPICK = ofTool("lockpick");
+    public static final long DECODER = ofTool("decoder");
+    public static final long HINTBOOK = ofTool("hintbook");
+    public static final long BLUEPRINT = ofTool("blueprint");
+    public static final long TIME_COMPONENT = ofTool("time_component");
+
+    private Capability() {}
+
+    // === LOOKUPS (never allocate) ===
+    // The bit for a name, or 0 if no item has it
+    public static long lookup(String name) {
+        Long existing = name == null ? null : BITS.get(name);
+        return existing == null ? 0L : existing;
+    }
+
+    public static long tool(String toolType) {
+        return toolType == null ? 0L : lookup("tool:" + toolType);
+    }
+
+    public static long keyColor(String keyColor) {
+        return keyColor == null ? 0L : lookup("key:" + keyColor);
+    }
+
+    // === ITEM DEFINITIONS (allocate) ===
+    public static long ofTool(String toolType) {
+        return toolType == null ? 0L : bit("tool:" + toolType);
+    }
+
+    public static long ofKey(String keyColor, boolean masterKey) {
+        return KEY | (keyColor == null ? 0L : bit("key:" + keyColor)) | (masterKey ? MASTER_KEY : 0L);
+    }
+
+    // What satisfies Player.hasRequiredItem(name): that tool, that key colour or a master key
+    public static long requirement(String name) {
+        return tool(name) | keyColor(name) | MASTER_KEY;
+    }
+
+    // Bits not handed out yet; a definition with a new tool type or key colour needs one
+    public static synchronized int spareBits() {
+        return Long.SIZE - nextBit;
+    }
+
+    // Index of a single-bit mask, e.g. for per-capability counters
+    public static int indexOf(long bit) {
+        return Long.numberOfTrailingZeros(bit);
+    }
+
+    private static long bit(String name) {
+        Long existing = BITS.get(name);
+        return existing != null ? existing : allocate(name);
+    }
+
+    private static synchronized long allocate(String name) {
+        Long existing = BITS.get(name);
+        if (existing != null) return existing;
+        if (nextBit >= Long.SIZE) {
+            throw new IllegalStateException("Too many distinct tool types and key colours (max "
+                    + Long.SIZE + "), cannot add " + name);
+        }
+        long bit = 1L << nextBit++;
+        BITS.put(name, bit);
+        return bit;
+    }
+}
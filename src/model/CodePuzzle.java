@@ -1,14 +1,35 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
 public class CodePuzzle extends Puzzle {
+    private static final long serialVersionUID = -1505746043979071317L; // value from before it was declared
     private String solution;
     private String playerInput;
+    private String[] alternateSolutions; // other accepted forms, null when there are none
+    private transient AnswerMatcher matcher; // compiled from solution + alternateSolutions
 
     public CodePuzzle(String description, int coinReward, int difficultyLevel,
                       String solution, int maxAttempts, boolean requiresGachaItem){
         super(description, coinReward, difficultyLevel, requiresGachaItem);
         this.solution = solution;
         this.playerInput = "";
+        this.matcher = AnswerMatcher.exact(solution, null);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        matcher = AnswerMatcher.exact(solution, alternateSolutions);
+    }
+
+    // Another form of the code that also counts, e.g. "13:00" for "1:00"
+    public void addAlternateSolution(String alternate) {
+        alternateSolutions = alternateSolutions == null ? new String[] {alternate}
+                : Arrays.copyOf(alternateSolutions, alternateSolutions.length + 1);
+        alternateSolutions[alternateSolutions.length - 1] = alternate;
+        matcher = AnswerMatcher.exact(solution, alternateSolutions);
     }
 
     public CodePuzzle(String description, int coinReward, int difficultyLevel,
@@ -26,6 +47,16 @@ public class CodePuzzle extends Puzzle {
         return false;
     }
 
+    @Override
+    public long getToolMask() {
+        return super.getToolMask() | Capability.DECODER;
+    }
+
+    @Override
+    public long getHelpfulMask() {
+        return super.getHelpfulMask() | Capability.DECODER;
+    }
+
     @Override
     public String getHint() {
         return "Analyze the pattern carefully. Look for the mathematical sequences or logical progressions";
@@ -35,8 +66,9 @@ public class CodePuzzle extends Puzzle {
         this.playerInput = input;
     }
 
+    // Spacing, case and leading zeros are ignored but the code itself must be exact
     public boolean validateCode(String code){
-        if(code.equals(solution)){
+        if(matcher.matches(code)){
             markSolved();
             return true;
         }
@@ -0,0 +1,203 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A player's coins plus lifetime earned/spent totals, updated together.
+ * The three numbers live in one immutable Balance swapped with compare-and-set,
+ * so concurrent sessions can never drive the balance negative or see the
+ * totals out of step with it. An uncontended update is one CAS.
+ */
+public class CoinLedger {
+
+    public static final class Balance {
+        private final int coins;
+        private final int earned;
+        private final int spent;
+
+        Balance(int coins, int earned, int spent) {
+            this.coins = coins;
+            this.earned = earned;
+            this.spent = spent;
+        }
+
+        public int getCoins() { return coins; }
+        public int getEarned() { return earned; }
+        public int getSpent() { return spent; }
+
+        @Override
+        public String toString() {
+            return String.format("%d coins (earned %d, spent %d)", coins, earned, spent);
+        }
+    }
+
+    private final AtomicReference<Balance> state;
+
+    public CoinLedger(int coins, int earned, int spent) {
+        this.state = new AtomicReference<>(new Balance(coins, earned, spent));
+    }
+
+    public Balance getBalance() {
+        return state.get();
+    }
+
+    public int getCoins() {
+        return state.get().coins;
+    }
+
+    // === SINGLE STEPS ===
+    // Takes the coins only if they are all there
+    public boolean tryDebit(int amount) {
+        checkAmount(amount);
+        while (true) {
+            Balance current = state.get();
+            if (current.coins < amount) return false;
+            Balance next = new Balance(current.coins - amount, current.earned, current.spent + amount);
+            if (state.compareAndSet(current, next)) return true;
+        }
+    }
+
+    public void credit(int amount) {
+        checkAmount(amount);
+        state.updateAndGet(b -> new Balance(Math.addExact(b.coins, amount), b.earned + amount, b.spent));
+    }
+
+    // Gives back an earlier debit, it no longer counts as spent
+    public void refund(int amount) {
+        checkAmount(amount);
+        state.updateAndGet(b -> new Balance(Math.addExact(b.coins, amount), b.earned, b.spent - amount));
+    }
+
+    /**
+     * Takes back an earlier credit: it no longer counts as earned. If some of
+     * the coins were spent in the meantime the balance cannot go negative, the
+     * missing part is returned instead (0 = fully taken back).
+     */
+    private int reverseCredit(int amount) {
+        while (true) {
+            Balance current = state.get();
+            int taken = Math.min(amount, current.coins);
+            Balance next = new Balance(current.coins - taken, current.earned - amount, current.spent);
+            if (state.compareAndSet(current, next)) return amount - taken;
+        }
+    }
+
+    // === DIRECT ADJUSTMENTS (loading saves, cheats, old callers) ===
+    public void setCoins(int coins) {
+        if (coins < 0) throw new IllegalArgumentException("Negative coin balance: " + coins);
+        state.updateAndGet(b -> new Balance(coins, b.earned, b.spent));
+    }
+
+    public void setEarned(int earned) {
+        state.updateAndGet(b -> new Balance(b.coins, earned, b.spent));
+    }
+
+    public void setSpent(int spent) {
+        state.updateAndGet(b -> new Balance(b.coins, b.earned, spent));
+    }
+
+    public void addToTotals(int earned, int spent) {
+        state.updateAndGet(b -> new Balance(b.coins, b.earned + earned, b.spent + spent));
+    }
+
+    private static void checkAmount(int amount) {
+        if (amount < 0) throw new IllegalArgumentException("Negative coin amount: " + amount);
+    }
+
+    // === TRANSACTIONS ===
+    // Told about every step once its transaction commits, e.g. to log it
+    public interface CommitListener {
+        void committed(boolean debit, int amount);
+    }
+
+    public Transaction begin() {
+        return new Transaction(null);
+    }
+
+    public Transaction begin(CommitListener listener) {
+        return new Transaction(listener);
+    }
+
+    /**
+     * A group of debits and credits that is undone as a whole unless committed,
+     * e.g. "pay for 10 pulls, refund if the items do not fit". Each step is
+     * applied (and visible) at once; rollback reverses the steps newest first,
+     * together with any onRollback actions registered in between.
+     * Use with try-with-resources: closing an uncommitted transaction rolls it back.
+     */
+    public final class Transaction implements AutoCloseable {
+        private final CommitListener listener;
+        private final List<int[]> steps = new ArrayList<>(); // {sign, amount}, oldest first
+        private final ArrayDeque<Runnable> undo = new ArrayDeque<>(); // newest first
+        private boolean finished;
+        private int shortfall;
+
+        private Transaction(CommitListener listener) {
+            this.listener = listener;
+        }
+
+        public boolean debit(int amount) {
+            checkOpen();
+            if (!tryDebit(amount)) return false;
+            steps.add(new int[] {-1, amount});
+            undo.push(() -> refund(amount));
+            return true;
+        }
+
+        public void credit(int amount) {
+            checkOpen();
+            CoinLedger.this.credit(amount);
+            steps.add(new int[] {1, amount});
+            undo.push(() -> shortfall += reverseCredit(amount));
+        }
+
+        // Other state to put back on rollback, e.g. a gacha machine's pity counter
+        public void onRollback(Runnable action) {
+            checkOpen();
+            undo.push(action);
+        }
+
+        public void commit() {
+            checkOpen();
+            finished = true;
+            if (listener != null) {
+                for (int[] step : steps) listener.committed(step[0] < 0, step[1]);
+            }
+            steps.clear();
+            undo.clear();
+        }
+
+        /**
+         * Undoes every step. Returns the coins that could not be taken back
+         * because credited coins were spent elsewhere meanwhile (0 = exact).
+         */
+        public int rollback() {
+            if (finished) return shortfall;
+            finished = true;
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            steps.clear();
+            if (shortfall > 0) {
+                System.err.println("⚠️ Coin rollback short by " + shortfall + " coins, they were already spent");
+            }
+            return shortfall;
+        }
+
+        public int getShortfall() {
+            return shortfall;
+        }
+
+        @Override
+        public void close() {
+            rollback();
+        }
+
+        private void checkOpen() {
+            if (finished) throw new IllegalStateException("Transaction already finished");
+        }
+    }
+}
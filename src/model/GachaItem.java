@@ -1,25 +1,69 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public abstract class GachaItem implements  Serializable{
     private static final long serialVersionUID = 1L;
-    protected String name;
-    protected String description;
-    protected Rarity rarity;
-    protected ItemType itemType;
+    protected ItemDefinition definition; // shared, see ItemDefinition
+
+    // Fields of saves written before definitions existed, only kept until the subclass has read its part
+    protected transient LegacyFields legacy;
 
     public GachaItem(String name, String description, Rarity rarity, ItemType itemType){
-        this.name = name;
-        this.description = description;
-        this.rarity = rarity;
-        this.itemType = itemType;
+        this(ItemDefinition.plain(name, description, rarity, itemType));
+    }
+
+    protected GachaItem(ItemDefinition definition){
+        this.definition = definition;
     }
 
     public abstract boolean use(Puzzle puzzle);
 
-    public String getName() {return name;}
-    public ItemType getItemType() {return itemType;}
-    public Rarity getRarity() {return rarity;}
-    public String getDescription() {return description;}
-}
\ No newline at end of file
+    /**
+     * A fresh copy of this item, e.g. for a gacha pull, so using it never wears
+     * out the pool entry. Items without per-copy state just return themselves.
+     */
+    public GachaItem newInstance() {
+        return this;
+    }
+
+    public ItemDefinition getDefinition() {return definition;}
+    public String getName() {return definition.getName();}
+    public ItemType getItemType() {return definition.getItemType();}
+    public Rarity getRarity() {return definition.getRarity();}
+    public String getDescription() {return definition.getDescription();}
+    public long getCapabilities() {return definition.getCapabilities();}
+
+    // === OLD SAVE FORMAT ===
+    static final class LegacyFields {
+        final String name;
+        final String description;
+        final Rarity rarity;
+        final ItemType itemType;
+
+        LegacyFields(String name, String description, Rarity rarity, ItemType itemType) {
+            this.name = name;
+            this.description = description;
+            this.rarity = rarity;
+            this.itemType = itemType;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        if (!fields.defaulted("definition")) {
+            definition = (ItemDefinition) fields.get("definition", null);
+            return;
+        }
+
+        // Saved before definitions: the subclass builds the definition from these
+        legacy = new LegacyFields(
+                (String) fields.get("name", null),
+                (String) fields.get("description", null),
+                (Rarity) fields.get("rarity", null),
+                (ItemType) fields.get("itemType", null));
+        definition = ItemDefinition.plain(legacy.name, legacy.description, legacy.rarity, legacy.itemType);
+    }
+}
@@ -1,9 +1,14 @@
 package model;
 
 import exceptions.NotEnoughCoinsException;
+import util.PullJournal;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GachaMachine implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -11,26 +16,210 @@ public class GachaMachine implements Serializable {
     private int pullCost;
     private List<GachaItem> itemPool;
     private Map<Rarity, Double> rateTable;
-    private static final int PITY_THRESHOLD = 10; // Epic every 10 pulls
+    public static final int PITY_THRESHOLD = 10; // Epic every 10 pulls
+    private static final Rarity[] RARITIES = Rarity.values();
     private int pullsSinceLastEpic; // Track pulls since last epic
 
     // ✅ ADD: Persistent pity counter that survives across game sessions
     private int totalPullsWithoutEpic;
 
+    // Rate-up weights by item name, items not listed weigh 1.0 (null in older saves).
+    // The samplers only hold a copy: every pool rebuild (reload, load, duplicate) reapplies these.
+    private Map<String, Double> itemWeights;
+
+    // Vose alias table over Rarity.values(), rebuilt whenever the rate table changes
+    private transient double[] aliasProbability;
+    private transient int[] aliasIndex;
+
+    // Pull-side view of itemPool, swapped as a whole so pool reloads are atomic
+    private transient volatile PoolIndex pool;
+
+    private transient PullJournal journal;
+
+    // Injected by GameManager so pulls are reproducible for a given seed
+    private transient SplittableRandom random;
+
+    // Exact odds for the current pool and rates, dropped whenever either changes
+    private transient GachaOdds odds;
+
+    private transient boolean lastPullWasPity;
+    private transient int drawCount; // pulls made by this machine, tells a rollback whether later pulls built on its pity
+    private transient GachaTelemetry telemetry;
+
     public GachaMachine(String machineName, int pullCost){
         this.machineName = machineName;
         this.pullCost = pullCost;
         this.itemPool = new ArrayList<>();
-        this.rateTable = new HashMap<>();
+        this.rateTable = new EnumMap<>(Rarity.class);
         this.pullsSinceLastEpic = 0;
         this.totalPullsWithoutEpic = 0; // ✅ INITIALIZE persistent counter
+        this.itemWeights = new ConcurrentHashMap<>();
+        this.pool = PoolIndex.of(itemPool, itemWeights);
+        this.telemetry = new GachaTelemetry();
         initializeRates();
     }
 
+    public GachaMachine(String machineName, int pullCost, SplittableRandom random){
+        this(machineName, pullCost);
+        this.random = random;
+    }
+
+    /**
+     * Snapshot of the pool: every item plus per-rarity buckets, each with a
+     * weighted sampler. Pulls read one snapshot, so a reload can never hand out
+     * half a pool. Only the sampler weights change (setItemWeight), each
+     * sampler swapping in a new snapshot of its own.
+     */
+    private static final class PoolIndex {
+        final GachaItem[] items;
+        final EnumMap<Rarity, GachaItem[]> itemsByRarity;
+        final EnumMap<Rarity, WeightedSampler> samplers;
+        final IdentityHashMap<GachaItem, Integer> bucketPositions; // slot in its rarity sampler
+        final Map<String, List<GachaItem>> itemsByName;
+
+        private PoolIndex(GachaItem[] items, Map<String, Double> weights) {
+            this.items = items;
+            this.itemsByRarity = new EnumMap<>(Rarity.class);
+            this.samplers = new EnumMap<>(Rarity.class);
+            this.bucketPositions = new IdentityHashMap<>();
+            this.itemsByName = new HashMap<>();
+
+            int[] sizes = new int[RARITIES.length];
+            for (GachaItem item : items) sizes[item.getRarity().ordinal()]++;
+            for (Rarity rarity : RARITIES) itemsByRarity.put(rarity, new GachaItem[sizes[rarity.ordinal()]]);
+
+            int[] filled = new int[RARITIES.length];
+            for (int i = 0; i < items.length; i++) {
+                GachaItem item = items[i];
+                int slot = filled[item.getRarity().ordinal()]++;
+                itemsByRarity.get(item.getRarity())[slot] = item;
+                bucketPositions.putIfAbsent(item, slot);
+                itemsByName.computeIfAbsent(item.getName(), name -> new ArrayList<>()).add(item);
+            }
+
+            for (Rarity rarity : RARITIES) {
+                GachaItem[] bucket = itemsByRarity.get(rarity);
+                double[] bucketWeights = new double[bucket.length];
+                for (int i = 0; i < bucket.length; i++) {
+                    bucketWeights[i] = weights.getOrDefault(bucket[i].getName(), 1.0);
+                }
+                samplers.put(rarity, new WeightedSampler(bucketWeights));
+            }
+        }
+
+        static PoolIndex of(List<GachaItem> items, Map<String, Double> weights) {
+            return new PoolIndex(items.toArray(new GachaItem[0]), weights);
+        }
+
+        // Weighted pick inside one rarity, null if the bucket has no weight at all
+        GachaItem sample(Rarity rarity, double roll) {
+            int slot = samplers.get(rarity).sample(roll);
+            return slot < 0 ? null : itemsByRarity.get(rarity)[slot];
+        }
+    }
+
+    // Transient lookup tables are not saved, rebuild them when a save is loaded
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // Null if saved before item weights existed, a plain HashMap in older saves
+        itemWeights = itemWeights == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(itemWeights);
+        rebuildAliasTable();
+        pool = PoolIndex.of(itemPool, itemWeights);
+        telemetry = new GachaTelemetry();
+    }
+
     private void initializeRates(){
         rateTable.put(Rarity.COMMON, 0.60); // Reduced from 70%
         rateTable.put(Rarity.RARE, 0.30);   // Increased from 25%
         rateTable.put(Rarity.EPIC, 0.10);   // Increased from 5%
+        rebuildAliasTable();
+    }
+
+    /**
+     * Builds the alias table (Vose's method) from the current rate table.
+     * Rates are normalised, so they do not have to add up to exactly 1.0.
+     */
+    private void rebuildAliasTable() {
+        Rarity[] rarities = Rarity.values();
+        int n = rarities.length;
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+
+        double total = 0.0;
+        for (Rarity rarity : rarities) {
+            total += Math.max(0.0, rateTable.getOrDefault(rarity, 0.0));
+        }
+        if (total <= 0.0) {
+            // No usable rates: everything rolls COMMON
+            Arrays.fill(alias, Rarity.COMMON.ordinal());
+            aliasProbability = probability;
+            aliasIndex = alias;
+            odds = null;
+            return;
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.max(0.0, rateTable.getOrDefault(rarities[i], 0.0)) * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left over is (up to rounding error) exactly 1.0
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+
+        aliasProbability = probability;
+        aliasIndex = alias;
+        odds = null;
+    }
+
+    /**
+     * Draws a rarity from the alias table using a single uniform roll in [0, 1).
+     */
+    private Rarity rollRarity(double roll) {
+        if (aliasProbability == null) {
+            rebuildAliasTable(); // transient table is gone after loading a save
+        }
+        Rarity[] rarities = RARITIES;
+        double scaled = roll * rarities.length;
+        int column = (int) scaled;
+        if (column >= rarities.length) column = rarities.length - 1;
+
+        return scaled - column < aliasProbability[column]
+                ? rarities[column]
+                : rarities[aliasIndex[column]];
     }
 
     public GachaItem pull(Player player) throws NotEnoughCoinsException {
@@ -38,91 +227,257 @@ public class GachaMachine implements Serializable {
             throw new NotEnoughCoinsException(pullCost, player.getCoinBalance());
         }
 
-        pullsSinceLastEpic++; // Track every pull
-        totalPullsWithoutEpic++; // ✅ ADD: Track persistent pity counter
+        return rollOnce(player);
+    }
 
-        // Pity system: Guaranteed epic every 10 pulls
-        if (totalPullsWithoutEpic >= PITY_THRESHOLD) {
-            totalPullsWithoutEpic = 0; // ✅ Reset persistent counter
-            pullsSinceLastEpic = 0;    // Reset session counter
-            System.out.println("🎉 Pity system activated! Guaranteed EPIC!");
-            GachaItem pityItem = getGuaranteedEpic();
-            if (pityItem != null) {
-                player.incrementTotalPulls();
-                return pityItem;
-            }
+    /**
+     * Performs {@code count} pulls for a single coin debit of {@code pullCost * count}.
+     * Pity is applied pull by pull in order, exactly as if pull() had been called
+     * {@code count} times. Slots are null only if the pool is empty.
+     */
+    public GachaItem[] pullMany(Player player, int count) throws NotEnoughCoinsException {
+        int totalCost = costOf(count);
+
+        if(!player.spendCoins(totalCost)) {
+            throw new NotEnoughCoinsException(totalCost, player.getCoinBalance());
         }
 
-        Random random = new Random();
-        double roll = random.nextDouble();
+        GachaItem[] results = new GachaItem[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = rollOnce(player);
+        }
+        return results;
+    }
 
-        // Determine rarity based on rates
-        Rarity rolledRarity = Rarity.COMMON;
-        double cumulative = 0.0;
+    private int costOf(int count) throws NotEnoughCoinsException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Pull count must be positive: " + count);
+        }
+        try {
+            return Math.multiplyExact(pullCost, count);
+        } catch (ArithmeticException e) {
+            throw new NotEnoughCoinsException("Too many pulls requested: " + count);
+        }
+    }
 
-        for(Map.Entry<Rarity, Double> entry : rateTable.entrySet()){
-            cumulative += entry.getValue();
-            if(roll <= cumulative) {
-                rolledRarity = entry.getKey();
-                break;
-            }
+    /**
+     * Same as pullMany, paid through an open transaction. Rolling the
+     * transaction back (e.g. the items did not fit) returns the coins, takes
+     * this transaction's pulls off the player's pull count and puts the pity
+     * counters back, unless later pulls have already moved on from them. The
+     * journal and telemetry keep the draw, they log what was rolled.
+     */
+    public GachaItem[] pullMany(Player player, int count, CoinLedger.Transaction payment)
+            throws NotEnoughCoinsException {
+        int totalCost = costOf(count);
+
+        if (!payment.debit(totalCost)) {
+            throw new NotEnoughCoinsException(totalCost, player.getCoinBalance());
         }
 
-        // Filter items by rolled rarity
-        List<GachaItem> eligibleItems = new ArrayList<>();
-        for(GachaItem item : itemPool){
-            if(item.getRarity() == rolledRarity) eligibleItems.add(item);
+        int pityBefore = totalPullsWithoutEpic;
+        int sinceEpicBefore = pullsSinceLastEpic;
+        boolean wasPityBefore = lastPullWasPity;
+
+        GachaItem[] results = new GachaItem[count];
+        int counted = 0;
+        for (int i = 0; i < count; i++) {
+            results[i] = rollOnce(player);
+            if (results[i] != null) counted++;
         }
 
-        // If no items of that rarity, fallback to common
-        if(eligibleItems.isEmpty()) {
-            for(GachaItem item : itemPool){
-                if(item.getRarity() == Rarity.COMMON) eligibleItems.add(item);
+        int pulledCount = counted;
+        int drawsAfter = drawCount;
+        payment.onRollback(() -> {
+            player.removeTotalPulls(pulledCount); // other pulls made meanwhile stay counted
+            // Pity is not a sum, so it is only put back if nothing has pulled since
+            if (drawCount == drawsAfter) {
+                totalPullsWithoutEpic = pityBefore;
+                pullsSinceLastEpic = sinceEpicBefore;
+                lastPullWasPity = wasPityBefore;
             }
-        }
+        });
+        return results;
+    }
+
+    public GachaItem pull(Player player, CoinLedger.Transaction payment) throws NotEnoughCoinsException {
+        return pullMany(player, 1, payment)[0];
+    }
+
+    // One already-paid pull, journaled if a journal is attached
+    private GachaItem rollOnce(Player player) {
+        long start = System.nanoTime();
+        int pityBefore = totalPullsWithoutEpic;
+        PoolIndex current = pool;
+        GachaItem result = drawItem(player, current);
+        recordPull(result, pityBefore, totalPullsWithoutEpic, lastPullWasPity,
+                player.getCoinBalance(), System.nanoTime() - start);
+        return result == null ? null : result.newInstance(); // the player gets their own copy
+    }
+
+    // Updates the pity counters and picks the item
+    private GachaItem drawItem(Player player, PoolIndex pool) {
+        SplittableRandom random = random();
+        int pityBefore = totalPullsWithoutEpic;
 
-        // Return random item from eligible ones
-        if(!eligibleItems.isEmpty()){
-            GachaItem result = eligibleItems.get(random.nextInt(eligibleItems.size()));
+        drawCount++;
+        // Pity system: Guaranteed epic every 10 pulls
+        lastPullWasPity = isPityPull(pityBefore);
+        GachaItem result = drawAt(pool, pityBefore, random.nextDouble(), random.nextDouble());
+
+        // ✅ Persistent and session counters both reset on any epic or pity pull
+        totalPullsWithoutEpic = pityAfter(pityBefore, result);
+        pullsSinceLastEpic = totalPullsWithoutEpic == 0 ? 0 : pullsSinceLastEpic + 1;
+
+        if (result != null) {
             player.incrementTotalPulls();
+        }
+        return result; // null only if itemPool is empty
+    }
 
-            // ✅ ADD: Reset pity counters if we get an epic naturally
-            if (result.getRarity() == Rarity.EPIC) {
-                totalPullsWithoutEpic = 0;
-                pullsSinceLastEpic = 0;
-                System.out.println("✨ Natural EPIC! Resetting pity counter.");
-            }
+    // === STATELESS PULL CORE ===
+    // Shared by pull() and GachaService, which keeps pity per player instead of per machine
+
+    static boolean isPityPull(int pityBefore) {
+        return pityBefore + 1 >= PITY_THRESHOLD;
+    }
 
-            return result;
+    // Pity counter after a pull that started at pityBefore and returned result
+    static int pityAfter(int pityBefore, GachaItem result) {
+        if (isPityPull(pityBefore) || (result != null && result.getRarity() == Rarity.EPIC)) {
+            return 0;
         }
+        return pityBefore + 1;
+    }
 
-        return null; // will never happen if itemPool is properly initialized
+    /**
+     * The item for one pull at the given pity counter, from two uniform rolls in
+     * [0, 1). Reads the current pool and rates only, so it is safe to call from
+     * many threads and gives the same item for the same inputs.
+     */
+    GachaItem drawAt(int pityBefore, double rarityRoll, double itemRoll) {
+        return drawAt(pool, pityBefore, rarityRoll, itemRoll);
     }
 
-    private GachaItem getGuaranteedEpic() {
-        List<GachaItem> epicItems = new ArrayList<>();
-        for(GachaItem item : itemPool){
-            if(item.getRarity() == Rarity.EPIC) epicItems.add(item);
+    private GachaItem drawAt(PoolIndex pool, int pityBefore, double rarityRoll, double itemRoll) {
+        if (isPityPull(pityBefore)) {
+            GachaItem pityItem = getGuaranteedEpic(pool, itemRoll);
+            if (pityItem != null) {
+                return pityItem;
+            }
+        }
+
+        // Determine rarity based on rates, then a weighted pick from that bucket
+        GachaItem result = pool.sample(rollRarity(rarityRoll), itemRoll);
+
+        // If no items of that rarity, fallback to common
+        if (result == null) {
+            result = pool.sample(Rarity.COMMON, itemRoll);
         }
+        return result;
+    }
+
+    private GachaItem getGuaranteedEpic(PoolIndex pool, double roll) {
+        GachaItem epicItem = pool.sample(Rarity.EPIC, roll);
 
-        if (!epicItems.isEmpty()) {
-            Random random = new Random();
-            return epicItems.get(random.nextInt(epicItems.size()));
+        if (epicItem != null) {
+            return epicItem;
         }
 
         // Fallback to any item if no epics in pool
-        if (!itemPool.isEmpty()) {
-            Random random = new Random();
-            return itemPool.get(random.nextInt(itemPool.size()));
+        if (pool.items.length > 0) {
+            return pool.items[Math.min((int) (roll * pool.items.length), pool.items.length - 1)];
         }
 
         return null;
     }
 
+    // Journal and telemetry for one finished pull, safe from any thread
+    void recordPull(GachaItem result, int pityBefore, int pityAfter, boolean pityPull,
+                    int coinBalance, long latencyNanos) {
+        PullJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.append(
+                    machineName.hashCode(),
+                    result == null ? -1 : result.getRarity().ordinal(),
+                    result == null ? -1 : result.getDefinition().getStableId(),
+                    pityBefore,
+                    pityAfter,
+                    pityPull,
+                    coinBalance);
+        }
+
+        telemetry.recordPull(result, pityPull, latencyNanos);
+    }
+
+    private SplittableRandom random() {
+        if (random == null) {
+            random = new SplittableRandom(); // unseeded until GameManager injects a stream
+        }
+        return random;
+    }
+
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    // Every pull is appended to the journal, null switches journaling off
+    public void setJournal(PullJournal journal) {
+        this.journal = journal;
+    }
+
+    // Live drop and latency metrics, see getTelemetry().snapshot()
+    public GachaTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    // True if the most recent pull was forced by the pity counter
+    public boolean wasLastPullPity() {
+        return lastPullWasPity;
+    }
+
+    /**
+     * Creates a fresh machine with the same name, cost, rates and item pool.
+     * Pity counters start at zero. Items are shared, pulls never modify them.
+     */
+    public GachaMachine duplicate() {
+        GachaMachine copy = new GachaMachine(machineName, pullCost);
+        copy.copyTuningFrom(this);
+        copy.replacePool(Arrays.asList(pool.items));
+        return copy;
+    }
+
+    /**
+     * Takes over a loaded machine's rates, rate-up weights and pity counters,
+     * for rooms rebuilt from a save. The pool stays; the weights are applied to it.
+     */
+    public synchronized void restoreStateFrom(GachaMachine saved) {
+        copyTuningFrom(saved);
+        totalPullsWithoutEpic = saved.totalPullsWithoutEpic;
+        pullsSinceLastEpic = saved.pullsSinceLastEpic;
+        publishPool(itemPool);
+    }
+
+    private void copyTuningFrom(GachaMachine source) {
+        rateTable.clear();
+        rateTable.putAll(source.rateTable);
+        rebuildAliasTable();
+        itemWeights.clear();
+        itemWeights.putAll(source.itemWeights);
+    }
+
+    public List<GachaItem> getItemPool() {
+        return new ArrayList<>(Arrays.asList(pool.items));
+    }
+
     public boolean canPull(Player player) {
         return player.getCoinBalance() >= pullCost;
     }
 
+    public boolean canPull(Player player, int count) {
+        return count > 0 && (long) pullCost * count <= player.getCoinBalance();
+    }
+
     public int getPullCost() {
         return pullCost;
     }
@@ -131,9 +486,86 @@ public class GachaMachine implements Serializable {
         return new HashMap<>(rateTable);
     }
 
+    // Changing a rate rebuilds the alias table once, so pulls stay O(1)
+    public void setRate(Rarity rarity, double rate) {
+        if (rarity == null || rate < 0.0) {
+            throw new IllegalArgumentException("Invalid rate for " + rarity + ": " + rate);
+        }
+        rateTable.put(rarity, rate);
+        rebuildAliasTable();
+    }
+
+    /**
+     * Sets the draw weight of every pool item with this name (default 1.0), e.g.
+     * for a rate-up banner. The weight only matters against items of the same
+     * rarity; rarity rates are unchanged. Copies the rarity's sampler, O(n) per matching item.
+     */
+    public synchronized void setItemWeight(String itemName, double weight) {
+        if (itemName == null || !(weight >= 0.0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Invalid weight for " + itemName + ": " + weight);
+        }
+        itemWeights.put(itemName, weight);
+
+        PoolIndex current = pool;
+        for (GachaItem item : current.itemsByName.getOrDefault(itemName, Collections.emptyList())) {
+            current.samplers.get(item.getRarity()).setWeight(current.bucketPositions.get(item), weight);
+        }
+        odds = null;
+    }
+
+    public double getItemWeight(String itemName) {
+        return itemWeights.getOrDefault(itemName, 1.0);
+    }
+
+    // Drops every rate-up, all items weigh 1.0 again
+    public synchronized void clearItemWeights() {
+        itemWeights.clear();
+        publishPool(itemPool);
+    }
+
     // Methods to add items to the pool
-    public void addItemToPool(GachaItem item){
-        itemPool.add(item);
+    public synchronized void addItemToPool(GachaItem item){
+        List<GachaItem> items = new ArrayList<>(itemPool);
+        items.add(item);
+        publishPool(items);
+    }
+
+    /**
+     * Swaps in a whole new pool at once, e.g. after the pool file was edited.
+     * Pulls in progress finish on the old pool, pity counters are kept.
+     */
+    public synchronized void replacePool(List<GachaItem> items) {
+        publishPool(new ArrayList<>(items));
+    }
+
+    private void publishPool(List<GachaItem> items) {
+        PoolIndex index = PoolIndex.of(items, itemWeights);
+        itemPool = items;
+        odds = null;
+        pool = index; // volatile write publishes everything above
+    }
+
+    /**
+     * Exact pity-aware odds for this machine. Cached until the pool or rates change.
+     */
+    public GachaOdds getOdds() {
+        GachaOdds current = odds;
+        if (current == null) {
+            double total = 0.0;
+            for (Rarity rarity : RARITIES) {
+                total += Math.max(0.0, rateTable.getOrDefault(rarity, 0.0));
+            }
+            double[] rarityChance = new double[RARITIES.length];
+            for (Rarity rarity : RARITIES) {
+                rarityChance[rarity.ordinal()] = total <= 0.0
+                        ? (rarity == Rarity.COMMON ? 1.0 : 0.0)
+                        : Math.max(0.0, rateTable.getOrDefault(rarity, 0.0)) / total;
+            }
+            PoolIndex index = pool;
+            current = new GachaOdds(index.items, index.itemsByRarity, index.samplers, rarityChance, pullCost);
+            odds = current;
+        }
+        return current;
     }
 
     public int getPullsSinceLastEpic() {
@@ -0,0 +1,259 @@
+package model;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exact, pity-aware odds for one gacha machine.
+ * The pity counter is a Markov chain with PITY_THRESHOLD states: every pull moves
+ * it up by one, an EPIC (natural or pity) sends it back to 0. All pulls below the
+ * threshold share the same item probabilities and the pity pull has its own, so
+ * expected values are solved in O(threshold) per item without simulation.
+ *
+ * Instances are immutable snapshots, everything is computed in the constructor,
+ * so one can be shared between threads freely. GachaMachine throws its snapshot
+ * away when the pool or the rate table changes and builds a new one on demand.
+ */
+public class GachaOdds {
+    private static final int THRESHOLD = GachaMachine.PITY_THRESHOLD;
+    private static final double EPSILON = 1e-12;
+
+    private final GachaItem[] items;
+    private final Map<GachaItem, Integer> indexOf = new IdentityHashMap<>();
+    private final double[] normalChance; // item chance on a regular pull
+    private final double[] pityChance;   // item chance on the pity pull
+    private final int pullCost;
+
+    // Expected pulls per item from counter 0, the case the UI asks for most
+    private final double[] expectedPullsFromZero;
+
+    GachaOdds(GachaItem[] items, EnumMap<Rarity, GachaItem[]> itemsByRarity,
+              EnumMap<Rarity, WeightedSampler> samplers, double[] rarityChance, int pullCost) {
+        this.items = items;
+        this.pullCost = pullCost;
+        this.normalChance = new double[items.length];
+        this.pityChance = new double[items.length];
+        this.expectedPullsFromZero = new double[items.length];
+
+        for (int i = 0; i < items.length; i++) {
+            indexOf.put(items[i], i);
+        }
+
+        // Regular pull: roll a rarity, then an item by weight; a bucket without
+        // weight falls back to COMMON
+        for (Rarity rarity : Rarity.values()) {
+            Rarity source = samplers.get(rarity).getTotalWeight() > 0.0 ? rarity : Rarity.COMMON;
+            addBucket(normalChance, itemsByRarity.get(source), samplers.get(source),
+                    rarityChance[rarity.ordinal()]);
+        }
+
+        // Pity pull: an EPIC by weight, or anything at all (uniform) if there are none
+        if (samplers.get(Rarity.EPIC).getTotalWeight() > 0.0) {
+            addBucket(pityChance, itemsByRarity.get(Rarity.EPIC), samplers.get(Rarity.EPIC), 1.0);
+        } else {
+            for (GachaItem item : items) {
+                pityChance[indexOf.get(item)] += 1.0 / items.length;
+            }
+        }
+
+        for (int i = 0; i < items.length; i++) {
+            boolean[] target = new boolean[items.length];
+            target[i] = true;
+            expectedPullsFromZero[i] = expectedPulls(target, 0);
+        }
+    }
+
+    private void addBucket(double[] chance, GachaItem[] bucket, WeightedSampler sampler, double bucketChance) {
+        double[] weights = sampler.getWeights(); // one snapshot, a rate-up may land meanwhile
+        double total = 0.0;
+        for (double weight : weights) total += weight;
+        if (total <= 0.0) return; // pull yields nothing
+        for (int i = 0; i < bucket.length; i++) {
+            chance[indexOf.get(bucket[i])] += bucketChance * weights[i] / total;
+        }
+    }
+
+    // === SINGLE PULL ===
+    /**
+     * Chance that the next pull returns something of the given rarity,
+     * given the machine's current pity counter.
+     */
+    public double nextPullChance(Rarity rarity, int pityCounter) {
+        double[] chance = isPityPull(pityCounter) ? pityChance : normalChance;
+        double total = 0.0;
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getRarity() == rarity) total += chance[i];
+        }
+        return total;
+    }
+
+    public double nextPullChance(GachaItem item, int pityCounter) {
+        Integer i = indexOf.get(item);
+        if (i == null) return 0.0;
+        return isPityPull(pityCounter) ? pityChance[i] : normalChance[i];
+    }
+
+    // === EXPECTED COST ===
+    public double expectedPulls(GachaItem item, int pityCounter) {
+        Integer i = indexOf.get(item);
+        if (i == null) return Double.POSITIVE_INFINITY;
+
+        if (clamp(pityCounter) == 0) {
+            return expectedPullsFromZero[i];
+        }
+
+        boolean[] target = new boolean[items.length];
+        target[i] = true;
+        return expectedPulls(target, pityCounter);
+    }
+
+    public double expectedCoins(GachaItem item, int pityCounter) {
+        return expectedPulls(item, pityCounter) * pullCost;
+    }
+
+    public double expectedPullsToRarity(Rarity rarity, int pityCounter) {
+        boolean[] target = new boolean[items.length];
+        for (int i = 0; i < items.length; i++) {
+            target[i] = items[i].getRarity() == rarity;
+        }
+        return expectedPulls(target, pityCounter);
+    }
+
+    // Expected coins until any time machine part drops
+    public double expectedCoinsForAnyTimeMachinePart(int pityCounter) {
+        boolean[] target = new boolean[items.length];
+        for (int i = 0; i < items.length; i++) {
+            target[i] = items[i].getDefinition().isTimeMachinePart();
+        }
+        return expectedPulls(target, pityCounter) * pullCost;
+    }
+
+    /**
+     * Expected coins to get each item in the pool, in pool order.
+     */
+    public Map<GachaItem, Double> expectedCoinsPerItem(int pityCounter) {
+        Map<GachaItem, Double> result = new LinkedHashMap<>();
+        for (GachaItem item : items) {
+            result.put(item, expectedCoins(item, pityCounter));
+        }
+        return result;
+    }
+
+    /**
+     * Expected coins per time machine component, keyed by component name.
+     */
+    public Map<String, Double> expectedCoinsPerTimeMachinePart(int pityCounter) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (GachaItem item : items) {
+            if (item.getDefinition().isTimeMachinePart()) {
+                result.put(item.getName(), expectedCoins(item, pityCounter));
+            }
+        }
+        return result;
+    }
+
+    // === FULL DISTRIBUTION ===
+    /**
+     * Probability that the item first drops on pull k, for k = 1..maxPulls
+     * (index 0 is unused). Whatever is left is the chance of needing more pulls.
+     */
+    public double[] pullDistribution(GachaItem item, int pityCounter, int maxPulls) {
+        double[] distribution = new double[maxPulls + 1];
+        Integer index = indexOf.get(item);
+        if (index == null) return distribution;
+
+        double[] mass = new double[THRESHOLD];
+        double[] next = new double[THRESHOLD];
+        mass[clamp(pityCounter)] = 1.0;
+
+        for (int k = 1; k <= maxPulls; k++) {
+            java.util.Arrays.fill(next, 0.0);
+            double hit = 0.0;
+            for (int c = 0; c < THRESHOLD; c++) {
+                if (mass[c] == 0.0) continue;
+                double[] chance = isPityPull(c) ? pityChance : normalChance;
+                hit += mass[c] * chance[index];
+
+                double reset = resetChance(chance, c, index);
+                next[0] += mass[c] * reset;
+                if (!isPityPull(c)) {
+                    next[c + 1] += mass[c] * (1.0 - chance[index] - reset);
+                }
+            }
+            distribution[k] = hit;
+            double[] swap = mass;
+            mass = next;
+            next = swap;
+        }
+        return distribution;
+    }
+
+    // Chance of getting the item within the given number of pulls
+    public double chanceWithin(GachaItem item, int pityCounter, int pulls) {
+        double total = 0.0;
+        for (double p : pullDistribution(item, pityCounter, pulls)) total += p;
+        return total;
+    }
+
+    // === MARKOV CHAIN ===
+    /*
+     * E[c] = 1 + reset[c] * E[0] + advance[c] * E[c + 1], with advance = 0 on the
+     * pity pull. Walking back from the pity state gives E[c] = a[c] + b[c] * E[0],
+     * and E[0] = a[0] / (1 - b[0]).
+     */
+    private double expectedPulls(boolean[] target, int pityCounter) {
+        double[] a = new double[THRESHOLD + 1];
+        double[] b = new double[THRESHOLD + 1];
+
+        for (int c = THRESHOLD - 1; c >= 0; c--) {
+            double[] chance = isPityPull(c) ? pityChance : normalChance;
+            double hit = 0.0;
+            double reset = 0.0;
+            for (int i = 0; i < items.length; i++) {
+                if (target[i]) {
+                    hit += chance[i];
+                } else if (isPityPull(c) || items[i].getRarity() == Rarity.EPIC) {
+                    reset += chance[i];
+                }
+            }
+            if (isPityPull(c)) {
+                reset = 1.0 - hit; // the pity pull always resets the counter
+            }
+            double advance = Math.max(0.0, 1.0 - hit - reset);
+
+            a[c] = 1.0 + advance * a[c + 1];
+            b[c] = reset + advance * b[c + 1];
+        }
+
+        if (1.0 - b[0] < EPSILON) return Double.POSITIVE_INFINITY;
+        double fromZero = a[0] / (1.0 - b[0]);
+        int start = clamp(pityCounter);
+        return a[start] + b[start] * fromZero;
+    }
+
+    private double resetChance(double[] chance, int counter, int excluded) {
+        if (isPityPull(counter)) {
+            return 1.0 - chance[excluded];
+        }
+        double reset = 0.0;
+        for (int i = 0; i < items.length; i++) {
+            if (i != excluded && items[i].getRarity() == Rarity.EPIC) reset += chance[i];
+        }
+        return reset;
+    }
+
+    // The counter is incremented before the pity check, so counter T-1 is the pity pull
+    private static boolean isPityPull(int counter) {
+        return counter + 1 >= THRESHOLD;
+    }
+
+    private static int clamp(int counter) {
+        return Math.max(0, Math.min(counter, THRESHOLD - 1));
+    }
+
+    public int getPullCost() {
+        return pullCost;
+    }
+}
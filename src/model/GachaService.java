@@ -0,0 +1,147 @@
+package model;
+
+import exceptions.NotEnoughCoinsException;
+import util.RandomProvider;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe front end for one gacha machine shared by many players.
+ * The machine's own pity counters belong to the single local player; here every
+ * player gets a separate counter, keyed by the Player object itself so two
+ * players with the same name never share one, and updated with compare-and-set so pulls from
+ * different players never wait on each other. Coins go through the player's
+ * atomic CoinLedger and the pull counter is an atomic increment.
+ *
+ * Nothing on the pull path takes a shared lock: the item is drawn from the
+ * machine's immutable pool and sampler snapshots, and the journal reserves its
+ * slot with one atomic increment. The only lock is the player's own event
+ * history, so players still never wait on each other.
+ *
+ * Pool, rates and weights still come from the machine, so reloads and rate-ups
+ * apply to every player at once.
+ */
+public class GachaService {
+    private final GachaMachine machine;
+    private final ConcurrentHashMap<Player, AtomicInteger> pityByPlayer = new ConcurrentHashMap<>();
+
+    // Each thread splits its own stream off the root, SplittableRandom is not thread-safe
+    private final SplittableRandom rootRandom;
+    private final ThreadLocal<SplittableRandom> threadRandom;
+
+    public GachaService(GachaMachine machine) {
+        this(machine, new SplittableRandom());
+    }
+
+    public GachaService(GachaMachine machine, RandomProvider randomProvider) {
+        this(machine, randomProvider.forKey("service:" + machine.getMachineName()));
+    }
+
+    private GachaService(GachaMachine machine, SplittableRandom rootRandom) {
+        this.machine = machine;
+        this.rootRandom = rootRandom;
+        this.threadRandom = ThreadLocal.withInitial(this::splitRoot);
+    }
+
+    private SplittableRandom splitRoot() {
+        synchronized (rootRandom) {
+            return rootRandom.split();
+        }
+    }
+
+    public GachaItem pull(Player player) throws NotEnoughCoinsException {
+        debit(player, machine.getPullCost());
+        return rollOnce(player);
+    }
+
+    // Same as GachaMachine.pullMany: one debit, pity applied pull by pull
+    public GachaItem[] pullMany(Player player, int count) throws NotEnoughCoinsException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Pull count must be positive: " + count);
+        }
+
+        int totalCost;
+        try {
+            totalCost = Math.multiplyExact(machine.getPullCost(), count);
+        } catch (ArithmeticException e) {
+            throw new NotEnoughCoinsException("Too many pulls requested: " + count);
+        }
+        debit(player, totalCost);
+
+        GachaItem[] results = new GachaItem[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = rollOnce(player);
+        }
+        return results;
+    }
+
+    // The coin ledger is atomic on its own, no player lock needed
+    private void debit(Player player, int amount) throws NotEnoughCoinsException {
+        if (!player.spendCoins(amount)) {
+            throw new NotEnoughCoinsException(amount, player.getCoinBalance());
+        }
+    }
+
+    /**
+     * One paid pull. The rolls are made once up front; if another thread moved
+     * this player's pity counter in the meantime the item is recomputed from the
+     * same rolls at the new counter and the swap is retried.
+     */
+    private GachaItem rollOnce(Player player) {
+        long start = System.nanoTime();
+        SplittableRandom random = threadRandom.get();
+        double rarityRoll = random.nextDouble();
+        double itemRoll = random.nextDouble();
+
+        AtomicInteger pity = pityCounter(player);
+        int pityBefore;
+        int pityAfter;
+        GachaItem result;
+        do {
+            pityBefore = pity.get();
+            result = machine.drawAt(pityBefore, rarityRoll, itemRoll);
+            pityAfter = GachaMachine.pityAfter(pityBefore, result);
+        } while (!pity.compareAndSet(pityBefore, pityAfter));
+
+        if (result != null) player.incrementTotalPulls();
+
+        machine.recordPull(result, pityBefore, pityAfter, GachaMachine.isPityPull(pityBefore),
+                player.getCoinBalance(), System.nanoTime() - start);
+        return result == null ? null : result.newInstance();
+    }
+
+    private AtomicInteger pityCounter(Player player) {
+        AtomicInteger counter = pityByPlayer.get(player);
+        return counter != null ? counter : pityByPlayer.computeIfAbsent(player, key -> new AtomicInteger());
+    }
+
+    // === PITY STATE ===
+    public int getPity(Player player) {
+        AtomicInteger counter = pityByPlayer.get(player);
+        return counter == null ? 0 : counter.get();
+    }
+
+    // For restoring a player's counter from a save
+    public void setPity(Player player, int pulls) {
+        pityCounter(player).set(Math.max(0, Math.min(pulls, GachaMachine.PITY_THRESHOLD - 1)));
+    }
+
+    // Drops a player who left, the map holds each player until then
+    public void removePlayer(Player player) {
+        pityByPlayer.remove(player);
+    }
+
+    public Map<Player, Integer> getPityByPlayer() {
+        Map<Player, Integer> result = new ConcurrentHashMap<>();
+        pityByPlayer.forEach((player, counter) -> result.put(player, counter.get()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public GachaMachine getMachine() {
+        return machine;
+    }
+}
@@ -0,0 +1,271 @@
+package model;
+
+import exceptions.InvalidPoolFileException;
+import exceptions.NotEnoughCoinsException;
+import util.GachaPoolLoader;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Headless Monte Carlo simulator for the gacha economy.
+ * Simulated players are split across a fork-join pool. Every leaf task owns its
+ * own machine, player and random stream and fills its own result, results are
+ * merged on join so no counters are shared between threads.
+ *
+ * Usage: java model.GachaSimulator [players] [pullsPerPlayer] [seed] [room 1-5]
+ */
+public class GachaSimulator {
+    private static final int PLAYERS_PER_TASK = 20_000;
+
+    private final Supplier<GachaMachine> machineFactory;
+    private final int pullsPerPlayer;
+
+    public GachaSimulator(Supplier<GachaMachine> machineFactory, int pullsPerPlayer) {
+        if (pullsPerPlayer <= 0) {
+            throw new IllegalArgumentException("Pulls per player must be positive: " + pullsPerPlayer);
+        }
+        this.machineFactory = machineFactory;
+        this.pullsPerPlayer = pullsPerPlayer;
+    }
+
+    public SimulationResult run(int players, long seed) {
+        return run(players, seed, ForkJoinPool.commonPool());
+    }
+
+    public SimulationResult run(int players, long seed, ForkJoinPool pool) {
+        return pool.invoke(new SimulationTask(0, players, new SplittableRandom(seed)));
+    }
+
+    private class SimulationTask extends RecursiveTask<SimulationResult> {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        SimulationTask(int from, int to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from <= PLAYERS_PER_TASK) {
+                return simulatePlayers(to - from, random);
+            }
+
+            int middle = (from + to) >>> 1;
+            // split() before forking keeps the streams independent of scheduling
+            SimulationTask left = new SimulationTask(from, middle, random.split());
+            SimulationTask right = new SimulationTask(middle, to, random.split());
+            left.fork();
+            SimulationResult rightResult = right.compute();
+            SimulationResult leftResult = left.join();
+            leftResult.merge(rightResult);
+            return leftResult;
+        }
+    }
+
+    private SimulationResult simulatePlayers(int players, SplittableRandom random) {
+        GachaMachine machine = machineFactory.get();
+        machine.setRandom(random);
+
+        // Distinct time machine parts in this pool, by definition since pulls hand out copies
+        Map<ItemDefinition, Integer> partIndex = new IdentityHashMap<>();
+        List<GachaItem> pool = machine.getItemPool();
+        for (GachaItem item : pool) {
+            if (item.getDefinition().isTimeMachinePart() && !partIndex.containsKey(item.getDefinition())) {
+                partIndex.put(item.getDefinition(), partIndex.size());
+            }
+        }
+
+        SimulationResult result = new SimulationResult(pullsPerPlayer, partIndex.size(), machine.getPullCost());
+        boolean[] ownedParts = new boolean[partIndex.size()];
+
+        for (int p = 0; p < players; p++) {
+            Player player = new Player("Simulated Traveler");
+            player.setCoins(Integer.MAX_VALUE);
+            machine.setTotalPullsWithoutEpic(0);
+            java.util.Arrays.fill(ownedParts, false);
+
+            int pullsSinceEpic = 0;
+            int distinctParts = 0;
+            int pullsToFullSet = -1;
+
+            for (int pull = 1; pull <= pullsPerPlayer; pull++) {
+                GachaItem item;
+                try {
+                    item = machine.pull(player);
+                } catch (NotEnoughCoinsException e) {
+                    break; // cannot happen with Integer.MAX_VALUE coins
+                }
+                pullsSinceEpic++;
+
+                if (machine.wasLastPullPity()) {
+                    result.pityTriggers++;
+                }
+                if (item == null) {
+                    continue;
+                }
+
+                if (item.getRarity() == Rarity.EPIC) {
+                    result.recordEpicGap(pullsSinceEpic, machine.wasLastPullPity());
+                    pullsSinceEpic = 0;
+                }
+
+                Integer part = partIndex.get(item.getDefinition());
+                if (part != null) {
+                    result.partsPulled++;
+                    if (!ownedParts[part]) {
+                        ownedParts[part] = true;
+                        distinctParts++;
+                        if (distinctParts == ownedParts.length) {
+                            pullsToFullSet = pull;
+                        }
+                    }
+                }
+            }
+
+            result.players++;
+            result.totalPulls += player.getTotalPulls();
+            result.coinsSpent += player.getTotalCoinsSpent();
+            result.recordFullSet(pullsToFullSet);
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Aggregated simulation output. Only ever written by the task that owns it.
+     */
+    public static class SimulationResult {
+        private final int pullCost;
+        private final int partsInPool;
+        // epicGaps[g] = epics that arrived g pulls after the previous one
+        private final long[] epicGaps = new long[GachaMachine.PITY_THRESHOLD + 1];
+        // pullsToFullSet[k] = players that owned every distinct part after k pulls, [0] = never
+        private final long[] pullsToFullSet;
+        private long players;
+        private long totalPulls;
+        private long coinsSpent;
+        private long pityTriggers;
+        private long pityEpics;
+        private long naturalEpics;
+        private long partsPulled;
+
+        SimulationResult(int pullsPerPlayer, int partsInPool, int pullCost) {
+            this.pullsToFullSet = new long[pullsPerPlayer + 1];
+            this.partsInPool = partsInPool;
+            this.pullCost = pullCost;
+        }
+
+        void recordEpicGap(int gap, boolean pity) {
+            epicGaps[Math.min(gap, epicGaps.length - 1)]++;
+            if (pity) pityEpics++; else naturalEpics++;
+        }
+
+        void recordFullSet(int pulls) {
+            pullsToFullSet[Math.max(pulls, 0)]++;
+        }
+
+        void merge(SimulationResult other) {
+            for (int i = 0; i < epicGaps.length; i++) epicGaps[i] += other.epicGaps[i];
+            for (int i = 0; i < pullsToFullSet.length; i++) pullsToFullSet[i] += other.pullsToFullSet[i];
+            players += other.players;
+            totalPulls += other.totalPulls;
+            coinsSpent += other.coinsSpent;
+            pityTriggers += other.pityTriggers;
+            pityEpics += other.pityEpics;
+            naturalEpics += other.naturalEpics;
+            partsPulled += other.partsPulled;
+        }
+
+        public long getPlayers() { return players; }
+        public long getTotalPulls() { return totalPulls; }
+        public long getCoinsSpent() { return coinsSpent; }
+        public long getPityTriggers() { return pityTriggers; }
+        public long getPityEpics() { return pityEpics; }
+        public long getNaturalEpics() { return naturalEpics; }
+        public long getPartsPulled() { return partsPulled; }
+        public long[] getEpicGapHistogram() { return epicGaps.clone(); }
+        public long[] getPullsToFullSetHistogram() { return pullsToFullSet.clone(); }
+
+        public double getPityTriggerRate() {
+            return totalPulls == 0 ? 0.0 : (double) pityTriggers / totalPulls;
+        }
+
+        public double getCoinsPerTimeMachinePart() {
+            return partsPulled == 0 ? Double.NaN : (double) coinsSpent / partsPulled;
+        }
+
+        // Average coins to own every distinct part, over players that managed it
+        public double getAverageCoinsForFullSet() {
+            long completed = 0;
+            long pulls = 0;
+            for (int k = 1; k < pullsToFullSet.length; k++) {
+                completed += pullsToFullSet[k];
+                pulls += (long) k * pullsToFullSet[k];
+            }
+            return completed == 0 ? Double.NaN : (double) pulls * pullCost / completed;
+        }
+
+        public String toReport() {
+            StringBuilder report = new StringBuilder();
+            report.append("🎰 GACHA SIMULATION REPORT\n");
+            report.append("=".repeat(40)).append("\n");
+            report.append(String.format("Players: %,d | Pulls: %,d | Coins spent: %,d%n",
+                    players, totalPulls, coinsSpent));
+
+            long epics = pityEpics + naturalEpics;
+            report.append(String.format("Epics: %,d (natural %.1f%%, pity %.1f%%)%n", epics,
+                    epics == 0 ? 0.0 : 100.0 * naturalEpics / epics,
+                    epics == 0 ? 0.0 : 100.0 * pityEpics / epics));
+            report.append(String.format("Pity triggered on %.2f%% of pulls%n", 100.0 * getPityTriggerRate()));
+
+            report.append("\nPulls to epic:\n");
+            for (int gap = 1; gap < epicGaps.length; gap++) {
+                double share = epics == 0 ? 0.0 : 100.0 * epicGaps[gap] / epics;
+                report.append(String.format("%3d | %-40s %5.2f%%%n", gap,
+                        "█".repeat((int) Math.round(share * 0.4)), share));
+            }
+
+            report.append(String.format("%nTime machine parts in pool: %d%n", partsInPool));
+            report.append(String.format("Coins per part pulled: %.1f%n", getCoinsPerTimeMachinePart()));
+            report.append(String.format("Coins to own every part: %.1f (never completed: %.2f%% of players)%n",
+                    getAverageCoinsForFullSet(),
+                    players == 0 ? 0.0 : 100.0 * pullsToFullSet[0] / players));
+            return report.toString();
+        }
+    }
+
+    public static void main(String[] args) throws InvalidPoolFileException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int pulls = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int room = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        // Straight from the pool file, the game itself (journal, pool watcher) is not needed here
+        List<GachaItem> pool = GachaPoolLoader.loadPools().get(room);
+        if (pool == null || pool.isEmpty()) {
+            throw new IllegalArgumentException("No gacha pool for room " + room);
+        }
+        GachaMachine template = new GachaMachine("Room " + room + " Gacha", 20);
+        template.replacePool(pool);
+        GachaSimulator simulator = new GachaSimulator(template::duplicate, pulls);
+
+        long start = System.nanoTime();
+        SimulationResult result = simulator.run(players, seed);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(result.toReport());
+        System.out.printf("Simulated on %d threads in %,d ms%n",
+                ForkJoinPool.commonPool().getParallelism(), elapsedMs);
+    }
+}
@@ -0,0 +1,135 @@
+package model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live pull metrics for one gacha machine: drops per rarity, natural vs pity
+ * epics and a pull latency histogram. Recording only touches LongAdders, so it
+ * is cheap and safe from any thread. Read it through {@link #snapshot()}.
+ */
+public class GachaTelemetry {
+    // Bucket b counts pulls that took [2^b, 2^(b+1)) nanoseconds
+    private static final int LATENCY_BUCKETS = 40;
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    private final LongAdder[] rarityCounts = new LongAdder[RARITIES.length];
+    private final LongAdder naturalEpics = new LongAdder();
+    private final LongAdder pityEpics = new LongAdder();
+    private final LongAdder emptyPulls = new LongAdder();
+    private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BUCKETS];
+
+    public GachaTelemetry() {
+        for (int i = 0; i < rarityCounts.length; i++) rarityCounts[i] = new LongAdder();
+        for (int i = 0; i < latencyBuckets.length; i++) latencyBuckets[i] = new LongAdder();
+    }
+
+    void recordPull(GachaItem item, boolean pityPull, long latencyNanos) {
+        if (item == null) {
+            emptyPulls.increment();
+        } else {
+            rarityCounts[item.getRarity().ordinal()].increment();
+            if (item.getRarity() == Rarity.EPIC) {
+                (pityPull ? pityEpics : naturalEpics).increment();
+            }
+        }
+        latencyBuckets[bucketFor(latencyNanos)].increment();
+    }
+
+    private static int bucketFor(long nanos) {
+        if (nanos <= 1) return 0;
+        return Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    public Snapshot snapshot() {
+        long[] rarities = new long[rarityCounts.length];
+        for (int i = 0; i < rarities.length; i++) rarities[i] = rarityCounts[i].sum();
+        long[] latency = new long[latencyBuckets.length];
+        for (int i = 0; i < latency.length; i++) latency[i] = latencyBuckets[i].sum();
+        return new Snapshot(rarities, naturalEpics.sum(), pityEpics.sum(), emptyPulls.sum(), latency);
+    }
+
+    public void reset() {
+        for (LongAdder adder : rarityCounts) adder.reset();
+        for (LongAdder adder : latencyBuckets) adder.reset();
+        naturalEpics.reset();
+        pityEpics.reset();
+        emptyPulls.reset();
+    }
+
+    /**
+     * Point-in-time copy of the counters. Counters keep moving while a snapshot
+     * is taken, so totals can be off by the pulls that were in flight.
+     */
+    public static class Snapshot {
+        private final long[] rarityCounts;
+        private final long naturalEpics;
+        private final long pityEpics;
+        private final long emptyPulls;
+        private final long[] latencyBuckets;
+
+        Snapshot(long[] rarityCounts, long naturalEpics, long pityEpics, long emptyPulls, long[] latencyBuckets) {
+            this.rarityCounts = rarityCounts;
+            this.naturalEpics = naturalEpics;
+            this.pityEpics = pityEpics;
+            this.emptyPulls = emptyPulls;
+            this.latencyBuckets = latencyBuckets;
+        }
+
+        public long getTotalPulls() {
+            long total = emptyPulls;
+            for (long count : rarityCounts) total += count;
+            return total;
+        }
+
+        public long getCount(Rarity rarity) { return rarityCounts[rarity.ordinal()]; }
+        public long getNaturalEpics() { return naturalEpics; }
+        public long getPityEpics() { return pityEpics; }
+        public long getEmptyPulls() { return emptyPulls; }
+
+        public double getObservedRate(Rarity rarity) {
+            long total = getTotalPulls();
+            return total == 0 ? 0.0 : (double) getCount(rarity) / total;
+        }
+
+        public Map<Rarity, Long> getRarityCounts() {
+            Map<Rarity, Long> counts = new EnumMap<>(Rarity.class);
+            for (Rarity rarity : RARITIES) counts.put(rarity, getCount(rarity));
+            return counts;
+        }
+
+        /**
+         * Upper bound of the histogram bucket holding the given percentile (0-100).
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            long total = 0;
+            for (long count : latencyBuckets) total += count;
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            long seen = 0;
+            for (int bucket = 0; bucket < latencyBuckets.length; bucket++) {
+                seen += latencyBuckets[bucket];
+                if (seen >= rank && seen > 0) return 1L << (bucket + 1);
+            }
+            return 1L << latencyBuckets.length;
+        }
+
+        public long[] getLatencyHistogram() {
+            return latencyBuckets.clone();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Pulls: %d | COMMON %.1f%% | RARE %.1f%% | EPIC %.1f%% (natural %d, pity %d) | p50 %d ns | p99 %d ns",
+                    getTotalPulls(),
+                    100 * getObservedRate(Rarity.COMMON),
+                    100 * getObservedRate(Rarity.RARE),
+                    100 * getObservedRate(Rarity.EPIC),
+                    naturalEpics, pityEpics,
+                    getLatencyPercentileNanos(50), getLatencyPercentileNanos(99));
+        }
+    }
+}
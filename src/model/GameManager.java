@@ -1,7 +1,11 @@
 package model;
 
+import exceptions.InvalidPoolFileException;
 import exceptions.SaveFileCorruptedException;
 import util.FileManager;
+import util.GachaPoolLoader;
+import util.PullJournal;
+import util.RandomProvider;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -10,7 +14,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class GameManager implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -20,13 +28,41 @@ public class GameManager implements Serializable {
     private int currentRoomIndex;
     private String gameState;
     private transient FileManager fileManager;
+    private transient RandomProvider randomProvider;
+    private Long sessionSeed; // saved so a loaded game builds the same rifts, null in older saves
+    private transient NexusGenerator nexusGenerator;
+    private static PullJournal pullJournal; // shared by every machine, never part of the save
+    private static boolean poolWatcherStarted;
+    // Appends history off the UI thread; one thread keeps the writes in order
+    private static final ExecutorService HISTORY_WRITER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "history-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean HISTORY_WRITE_PENDING = new AtomicBoolean(); // a write is queued, it will pick up new events
+
+    static {
+        // Let queued history writes finish and flush the pull journal when the game closes
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            closePullJournal();
+            HISTORY_WRITER.shutdown();
+            try {
+                HISTORY_WRITER.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "history-writer-flush"));
+    }
 
     private GameManager(){
         this.rooms = new ArrayList<>();
         this.currentRoomIndex = 0;
         this.gameState = "MENU";
         this.fileManager = new FileManager();
+        this.randomProvider = new RandomProvider();
+        this.sessionSeed = randomProvider.getSessionSeed();
         initializeGame();
+        startPoolWatcher();
     }
 
     public static GameManager getInstance(){
@@ -46,9 +82,139 @@ public class GameManager implements Serializable {
         rooms.add(new Room(5, "Temporal Nexus", "A shimmering portal of pure temporal energy. This gateway leads to untold adventures beyond the original timeline..."));
 
         initializeGameContent();
+        applyRequiredGachaPools();
+        connectRooms();
         rooms.get(0).unlock();
     }
 
+    // === RANDOMNESS ===
+    private RandomProvider getRandomProvider() {
+        if (randomProvider == null) {
+            // transient, missing after deserialization
+            randomProvider = sessionSeed != null ? new RandomProvider(sessionSeed) : new RandomProvider();
+            sessionSeed = randomProvider.getSessionSeed();
+        }
+        return randomProvider;
+    }
+
+    private void reseed(long seed) {
+        randomProvider = new RandomProvider(seed);
+        sessionSeed = seed;
+        nexusGenerator = null;
+    }
+
+    // Rifts come from the session seed, so a new seed means a new generator; they share the Nexus pool
+    private NexusGenerator getNexusGenerator() {
+        if (nexusGenerator == null) {
+            GachaMachine nexusMachine = rooms.get(NexusGenerator.NEXUS_ROOM_NUMBER - 1).getGachaMachine();
+            nexusGenerator = new NexusGenerator(getRandomProvider(), nexusMachine::getItemPool);
+        }
+        return nexusGenerator;
+    }
+
+    /**
+     * Sets up what new and loaded games lack: every gacha machine gets its own
+     * deterministic stream and the shared pull journal, and the player's
+     * history is written after every event, solved puzzles included.
+     */
+    private void connectRooms() {
+        currentPlayer.setHistoryListener(this::saveHistory);
+        for (Room room : rooms) {
+            connectRoom(room);
+        }
+    }
+
+    private void connectRoom(Room room) {
+        room.getGachaMachine().setRandom(
+                getRandomProvider().forMachine(room.getGachaMachine().getMachineName()));
+        room.getGachaMachine().setJournal(getPullJournal());
+
+        List<Puzzle> puzzles = room.getPuzzles();
+        for (int i = 0; i < puzzles.size(); i++) {
+            int index = i;
+            puzzles.get(i).setOnSolved(() -> currentPlayer.recordPuzzleSolved(room.getRoomNumber(), index));
+        }
+    }
+
+    // Replays a solve from the history file, see PlayerHistory.PUZZLE_SOLVED
+    public void replayPuzzleSolved(int roomNumber, int puzzleIndex) {
+        for (Room room : rooms) {
+            if (room.getRoomNumber() != roomNumber) continue;
+            List<Puzzle> puzzles = room.getPuzzles();
+            if (puzzleIndex < puzzles.size()) puzzles.get(puzzleIndex).markSolved();
+            return;
+        }
+    }
+
+    // === GACHA POOLS ===
+    // Pools come from data/gacha_pools.txt instead of being hardcoded per room
+    private void applyGachaPools() {
+        try {
+            applyGachaPools(GachaPoolLoader.loadPools());
+        } catch (InvalidPoolFileException e) {
+            System.err.println("❌ Could not load gacha pools: " + e.getMessage());
+        }
+    }
+
+    // Without the pool file every machine would be empty, so a new game does not start without it
+    private void applyRequiredGachaPools() {
+        try {
+            applyGachaPools(GachaPoolLoader.loadPools());
+        } catch (InvalidPoolFileException e) {
+            throw new IllegalStateException("Cannot start without gacha pools: " + e.getMessage() +
+                    " (put " + GachaPoolLoader.POOL_FILE + " on the classpath or next to the game)", e);
+        }
+    }
+
+    private void applyGachaPools(Map<Integer, List<GachaItem>> pools) {
+        for (Room room : rooms) {
+            // Nexus rifts share the Nexus pool
+            List<GachaItem> pool = pools.get(Math.min(room.getRoomNumber(), NexusGenerator.NEXUS_ROOM_NUMBER));
+            if (pool != null) {
+                room.getGachaMachine().replacePool(pool);
+            }
+        }
+    }
+
+    // Edits to the pool file are swapped into whichever game is current
+    private static synchronized void startPoolWatcher() {
+        if (!poolWatcherStarted) {
+            poolWatcherStarted = true;
+            GachaPoolLoader.watch(pools -> {
+                GameManager current = instance;
+                if (current != null) current.applyGachaPools(pools);
+            });
+        }
+    }
+
+    private static synchronized PullJournal getPullJournal() {
+        if (pullJournal == null) {
+            try {
+                pullJournal = PullJournal.open();
+            } catch (IOException e) {
+                System.err.println("⚠️ Pull journal disabled: " + e.getMessage());
+            }
+        }
+        return pullJournal;
+    }
+
+    private static synchronized void closePullJournal() {
+        if (pullJournal != null) pullJournal.close();
+    }
+
+    /**
+     * Reseeds the session, e.g. to replay a run or for simulations.
+     * All gacha machines get fresh streams derived from the new seed.
+     */
+    public void setRandomSeed(long seed) {
+        reseed(seed);
+        connectRooms();
+    }
+
+    public long getRandomSeed() {
+        return getRandomProvider().getSessionSeed();
+    }
+
     private void initializeGameContent() {
         initializeRoom1();
         initializeRoom2();
@@ -80,6 +246,8 @@ public class GameManager implements Serializable {
                 "1:00",
                 3
         );
+        timeSequence.addAlternateSolution("13:00");
+        timeSequence.setPuzzleId("time_sequence");
         room1.addPuzzle(timeSequence);
 
         RiddlePuzzle machineParts = new RiddlePuzzle(
@@ -90,12 +258,9 @@ public class GameManager implements Serializable {
                 "clock",
                 "Think about time-telling devices"
         );
+        machineParts.addAlternateAnswer("a clock");
+        machineParts.setPuzzleId("riddle_clock");
         room1.addPuzzle(machineParts);
-
-        room1.addItemToGacha(new ToolItem("Temporal Crystal", "A glowing crystal that hums with energy", Rarity.COMMON, "time_component", 1));
-        room1.addItemToGacha(new ToolItem("Broken Gears", "Ancient clockwork mechanisms", Rarity.COMMON, "time_component", 1));
-        room1.addItemToGacha(new KeyItem("Lab Access Card", "Opens restricted areas", Rarity.RARE, "blue", false));
-        room1.addItemToGacha(new ToolItem("Energy Core", "Powers time devices", Rarity.EPIC, "time_component", 1));
     }
 
     private void initializeRoom2() {
@@ -108,6 +273,7 @@ public class GameManager implements Serializable {
                 "67",
                 3
         );
+        scientistNotes.setPuzzleId("letter_code");
         room2.addPuzzle(scientistNotes);
 
         RiddlePuzzle timeline = new RiddlePuzzle(
@@ -118,12 +284,11 @@ public class GameManager implements Serializable {
                 "rebuild machine",
                 "What are you trying to do right now?"
         );
+        timeline.addAlternateAnswer("rebuild the machine");
+        timeline.addAlternateAnswer("rebuild the time machine");
+        timeline.addAlternateAnswer("rebuild time machine");
+        timeline.setPuzzleId("riddle_timeline");
         room2.addPuzzle(timeline);
-
-        room2.addItemToGacha(new ToolItem("Time Circuit Board", "Complex electronic pathways", Rarity.COMMON, "time_component", 1));
-        room2.addItemToGacha(new ToolItem("Schematic Scrolls", "Partial time machine designs", Rarity.RARE, "blueprint", 2));
-        room2.addItemToGacha(new ToolItem("Chronal Stabilizer", "Prevents time paradoxes", Rarity.RARE, "time_component", 1));
-        room2.addItemToGacha(new KeyItem("Archive Key", "Opens secret research files", Rarity.EPIC, "silver", false));
     }
 
     private void initializeRoom3() {
@@ -136,6 +301,7 @@ public class GameManager implements Serializable {
                 "92",
                 3
         );
+        energyFormula.setPuzzleId("code");
         room3.addPuzzle(energyFormula);
 
         RiddlePuzzle materials = new RiddlePuzzle(
@@ -146,18 +312,9 @@ public class GameManager implements Serializable {
                 "crystal",
                 "Think about what might focus temporal energy"
         );
+        materials.addAlternateAnswer("a crystal");
+        materials.setPuzzleId("riddle_material");
         room3.addPuzzle(materials);
-
-        room3.addItemToGacha(new ToolItem("Quantum Flux Capacitor", "The heart of time travel", Rarity.RARE, "time_component", 1));
-        room3.addItemToGacha(new ToolItem("Temporal Alloy", "Metal that exists across time", Rarity.RARE, "time_component", 1));
-        room3.addItemToGacha(new ToolItem("Reality Anchor", "Keeps you grounded in your timeline", Rarity.EPIC, "time_component", 1));
-        room3.addItemToGacha(new GachaItem("Distorted Watch", "Shows multiple times at once", Rarity.COMMON, ItemType.TOOL) {
-            @Override
-            public boolean use(Puzzle puzzle) {
-                System.out.println("The watch spins wildly... but reveals nothing useful.");
-                return false;
-            }
-        });
     }
 
     private void initializeRoom4() {
@@ -170,6 +327,7 @@ public class GameManager implements Serializable {
                 "6792",
                 3
         );
+        activation.setPuzzleId("year_activation");
         room4.addPuzzle(activation);
 
         RiddlePuzzle assembly = new RiddlePuzzle(
@@ -180,46 +338,17 @@ public class GameManager implements Serializable {
                 "stabilizer",
                 "Think about what keeps you safe in the time stream"
         );
+        assembly.addAlternateAnswer("a stabilizer");
+        assembly.setPuzzleId("riddle_assembly");
         room4.addPuzzle(assembly);
-
-        room4.addItemToGacha(new ToolItem("Master Control Chip", "The final piece needed", Rarity.EPIC, "time_component", 1));
-        room4.addItemToGacha(new KeyItem("Reality Key", "Opens portals between timelines", Rarity.EPIC, "gold", true));
-        room4.addItemToGacha(new ToolItem("Temporal Navigator", "Guides through time streams", Rarity.RARE, "time_component", 1));
-
-        room4.addItemToGacha(new GachaItem("Melted Components", "The scientist's failed attempts", Rarity.COMMON, ItemType.TOOL) {
-            @Override
-            public boolean use(Puzzle puzzle) {
-                System.out.println("These components are useless... but show how difficult time travel is.");
-                return false;
-            }
-        });
     }
 
     // ✅ ADD: Initialize Room 5 (Temporal Nexus)
     private void initializeRoom5() {
         Room room5 = rooms.get(4);
 
-        // Add special "coming soon" puzzle
-        CodePuzzle nexusPuzzle = new CodePuzzle(
-                "The Temporal Gateway",
-                100,
-                5,
-                "TEMPORAL_NEXUS",
-                1,
-                false
-        );
-        nexusPuzzle.markSolved(); // Auto-solve it since it's just a placeholder
-        room5.addPuzzle(nexusPuzzle);
-
-        // Add special gacha items for the expansion
-        room5.addItemToGacha(new ToolItem("Chrono-Key", "A key that can unlock any temporal gateway",
-                Rarity.EPIC, "nexus_key", 1));
-        room5.addItemToGacha(new ToolItem("Reality Shard", "A fragment of alternate reality",
-                Rarity.RARE, "nexus_component", 1));
-        room5.addItemToGacha(new KeyItem("Nexus Pass", "Access all temporal dimensions",
-                Rarity.EPIC, "nexus", true));
-        room5.addItemToGacha(new ToolItem("Time Paradox Crystal", "Glows with impossible energy",
-                Rarity.EPIC, "nexus_component", 1));
+        // Generated puzzles, the same kinds every rift beyond it gets
+        getNexusGenerator().addPuzzles(room5, 0);
 
         // Lock the room initially - it unlocks after completing room 4
         room5.lock();
@@ -230,6 +359,7 @@ public class GameManager implements Serializable {
             instance = newInstance;
             // Reinitialize fileManager in the new instance
             instance.fileManager = new FileManager();
+            instance.connectRooms();
         }
     }
 
@@ -354,8 +484,7 @@ public class GameManager implements Serializable {
                 "🌌 You feel the fabric of time shift around you..."
         };
 
-        Random random = new Random();
-        String transition = transitions[random.nextInt(transitions.length)];
+        String transition = transitions[getRandomProvider().session().nextInt(transitions.length)];
 
         return String.format("%s\n🏰 You arrive at: %s",
                 transition, getCurrentRoom().getName());
@@ -400,8 +529,12 @@ public class GameManager implements Serializable {
                     return String.format("Collect more time machine components (%d/4 needed).", parts);
                 }
             case 4: // ✅ ADD: 5th room objective
-                return "This temporal gateway leads to future expansions! The adventure continues...";
-            default: return "Explore and solve puzzles to progress.";
+                return "Stabilize the Temporal Nexus to open the first rift. Every rift leads to another...";
+            default:
+                if (currentRoomIndex > 4) {
+                    return String.format("Decode the signals of rift %d to push deeper into the Nexus.", currentRoomIndex - 4);
+                }
+                return "Explore and solve puzzles to progress.";
         }
     }
 
@@ -416,7 +549,7 @@ public class GameManager implements Serializable {
             }
         }
 
-        if (currentRoomIndex < rooms.size() - 1 && current.isComplete()) {
+        if (hasNextRoom() && current.isComplete()) {
             return "💡 This room is complete! Move to the next room to continue.";
         }
 
@@ -462,12 +595,11 @@ public class GameManager implements Serializable {
                 "The time machine hums to life, its dials spinning wildly. \n" +
                 "You've restored the original timeline, but new temporal anomalies \n" +
                 "are appearing across history...\n\n" +
-                "Future expansions may include:\n" +
-                "• Ancient Egypt temporal rift\n" +
-                "• Renaissance art forgery mystery\n" +
-                "• Future dystopia intervention\n" +
-                "• Parallel reality exploration\n\n" +
-                "Your journey through time is just beginning!";
+                "Beyond the Temporal Nexus, rift after rift opens:\n" +
+                "• Clock readings that drift faster the deeper you go\n" +
+                "• Letter ciphers in the scientist's style\n" +
+                "• Binary beacons from lost moments\n\n" +
+                "The Nexus never ends. Your journey through time is just beginning!";
     }
 
     public String checkSpecialAchievements() {
@@ -509,6 +641,16 @@ public class GameManager implements Serializable {
         return stats;
     }
 
+    // Live gacha metrics per room machine, keyed by machine name
+    public Map<String, GachaTelemetry.Snapshot> getGachaTelemetry() {
+        Map<String, GachaTelemetry.Snapshot> telemetry = new java.util.LinkedHashMap<>();
+        for (Room room : rooms) {
+            GachaMachine machine = room.getGachaMachine();
+            telemetry.put(machine.getMachineName(), machine.getTelemetry().snapshot());
+        }
+        return telemetry;
+    }
+
     public boolean canAffordGachaPull() {
         GachaMachine currentGacha = getCurrentGachaMachine();
         return currentGacha != null && currentPlayer.getCoinBalance() >= currentGacha.getPullCost();
@@ -588,7 +730,7 @@ public class GameManager implements Serializable {
             result.put("gameState", "COMPLETED");
             result.put("message", "🎉 CONGRATULATIONS! You've rebuilt the time machine!\n\n" +
                     "⚡ The Temporal Nexus has been unlocked!\n" +
-                    "🌌 Continue your adventure in future expansions!");
+                    "🌌 Continue your adventure through its endless rifts!");
             result.put("canProceed", true);
         } else {
             Room room4 = rooms.get(3);
@@ -628,6 +770,28 @@ public class GameManager implements Serializable {
         }
     }
 
+    /**
+     * Cheap save after coin, item or puzzle changes, see FileManager.saveHistory.
+     * Runs after every recorded event and returns at once: the file is written
+     * in the background, one write for however many events came in meanwhile.
+     */
+    public void saveHistory() {
+        if (!HISTORY_WRITE_PENDING.compareAndSet(false, true)) return;
+        FileManager writer = fileManager;
+        try {
+            HISTORY_WRITER.execute(() -> {
+                HISTORY_WRITE_PENDING.set(false); // events from now on need another write
+                try {
+                    writer.saveHistory(this);
+                } catch (SaveFileCorruptedException e) {
+                    System.err.println("History save failed: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            HISTORY_WRITE_PENDING.set(false); // shutting down, the flush hook has the last word
+        }
+    }
+
     public boolean loadGame() {
         try {
             return fileManager.loadGame(this);
@@ -648,7 +812,7 @@ public class GameManager implements Serializable {
     }
 
     public String moveToNextRoom() {
-        if (currentRoomIndex >= rooms.size() - 1) {
+        if (!hasNextRoom()) {
             return "🎉 You've reached the Temporal Nexus!\n🌌 The gateway to future adventures awaits...";
         }
 
@@ -656,6 +820,11 @@ public class GameManager implements Serializable {
             return "❌ Complete all puzzles in the current room first!";
         }
 
+        // The Nexus never ends: past the last room the next rift is opened
+        if (currentRoomIndex == rooms.size() - 1) {
+            openNextRift();
+        }
+
         // ✅ ADD: Special check for moving to Room 5
         if (currentRoomIndex == 3) { // Moving from Room 4 to Room 5
             Room room4 = rooms.get(3);
@@ -683,17 +852,34 @@ public class GameManager implements Serializable {
         currentRoomIndex++;
         rooms.get(currentRoomIndex).unlock();
 
+        // From the Nexus on, the rift after this one is built while the player works on this one
+        if (currentRoomIndex >= 4) {
+            getNexusGenerator().prefetch(rooms.size() - 4);
+        }
+
         // Special message for 5th room
         if (currentRoomIndex == 4) { // Room 5 (index 4)
             return "⚡ TEMPORAL NEXUS UNLOCKED!\n\n" +
                     "Congratulations! You've successfully rebuilt the time machine!\n" +
                     "The Temporal Nexus now awaits your exploration...\n\n" +
-                    "🚀 More rooms, puzzles, and time travel adventures await!";
+                    "🚀 Solve its puzzles to open the first rift!";
         }
 
         return "🚀 Advanced to: " + getCurrentRoom().getName();
     }
 
+    // Rooms never run out once the Nexus is reached
+    public boolean hasNextRoom() {
+        return currentRoomIndex < rooms.size() - 1 || currentRoomIndex >= 4;
+    }
+
+    // Appends the next rift, usually already prefetched
+    private void openNextRift() {
+        Room rift = getNexusGenerator().take(rooms.size() - 4);
+        connectRoom(rift);
+        rooms.add(rift);
+    }
+
 
     public Room getCurrentRoom(){
         if(currentRoomIndex < rooms.size()) return rooms.get(currentRoomIndex);
@@ -703,6 +889,14 @@ public class GameManager implements Serializable {
     public Player getCurrentPlayer(){return currentPlayer;}
     public String getGameState(){return gameState;}
     public int getCurrentRoomIndex(){return currentRoomIndex;}
+
+    // For loading saves, unlike moveToRoom it does not print or validate completion
+    public void setCurrentRoomIndex(int roomIndex) {
+        if (roomIndex < 0 || roomIndex >= rooms.size()) {
+            throw new IllegalArgumentException("Invalid room index: " + roomIndex);
+        }
+        this.currentRoomIndex = roomIndex;
+    }
     public List<Room> getRooms() {
         return new ArrayList<>(rooms);
     }
@@ -816,6 +1010,11 @@ public class GameManager implements Serializable {
                 restorePlayerState(loadedPlayer);
             }
 
+            // Same seed as when it was saved, before the rooms reconnect their machines and prefetch rifts
+            if (loadedGame.sessionSeed != null) {
+                reseed(loadedGame.sessionSeed);
+            }
+
             // Copy room states
             List<Room> loadedRooms = loadedGame.getRooms();
             if (loadedRooms != null && rooms != null) {
@@ -835,19 +1034,7 @@ public class GameManager implements Serializable {
 
     private void restorePlayerState(Player loadedPlayer) {
         try {
-            // Use reflection to copy all non-static fields
-            java.lang.reflect.Field[] fields = Player.class.getDeclaredFields();
-
-            for (java.lang.reflect.Field field : fields) {
-                // Skip static fields
-                if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                    continue;
-                }
-
-                field.setAccessible(true);
-                Object value = field.get(loadedPlayer);
-                field.set(currentPlayer, value);
-            }
+            currentPlayer.copyStateFrom(loadedPlayer);
 
             System.out.println("✅ Player state restored: " + currentPlayer.getName());
 
@@ -874,6 +1061,8 @@ public class GameManager implements Serializable {
                 if (!loadedRoom.isLocked()) {
                     newRoom.unlock();
                 }
+                // Rates, rate-ups and pity; the pool itself comes from the pool file below
+                newRoom.getGachaMachine().restoreStateFrom(loadedRoom.getGachaMachine());
 
                 // Copy puzzles
                 for (Puzzle loadedPuzzle : loadedRoom.getPuzzles()) {
@@ -887,6 +1076,11 @@ public class GameManager implements Serializable {
 
             // Set current room index
             currentRoomIndex = loadedRoomIndex;
+            applyGachaPools(); // rebuilt rooms start with empty machines
+            connectRooms();
+            if (currentRoomIndex >= 4) {
+                getNexusGenerator().prefetch(rooms.size() - 4);
+            }
 
             System.out.println("✅ Room states restored. Current room: " + currentRoomIndex);
 
@@ -0,0 +1,190 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What each tool reveals about each puzzle, keyed by puzzle id and tool type.
+ * Puzzles get their id where they are built (GameManager, NexusGenerator), so
+ * a tool use is a map lookup. Only puzzles from older saves have theirs worked
+ * out from their text, see {@link #idFor}.
+ *
+ * Time components and blueprints say the same thing on every puzzle, their
+ * hint depends on the item instead (see {@link #forItem}).
+ */
+public final class HintRegistry {
+    // puzzle id -> tool type -> hint
+    private static final Map<String, Map<String, Hint>> HINTS = new ConcurrentHashMap<>();
+    private static final Map<ItemDefinition, Hint> ITEM_HINTS = new ConcurrentHashMap<>();
+
+    /** A hint and the device that gave it, e.g. "⏰ Temporal Analyzer". */
+    public static final class Hint {
+        private final String source;
+        private final String text;
+
+        public Hint(String source, String text) {
+            this.source = source;
+            this.text = text;
+        }
+
+        public String getSource() { return source; }
+        public String getText() { return text; }
+
+        @Override
+        public String toString() {
+            return source + ": " + text;
+        }
+    }
+
+    private HintRegistry() {}
+
+    // === STORY PUZZLES ===
+    static {
+        register("time_sequence", "decoder", new Hint("⏰ Temporal Analyzer",
+                "Time patterns often follow consistent intervals. Look at the difference between each time: " +
+                "12:00 to 12:15 = 15 minutes, 12:15 to 12:30 = 15 minutes. " +
+                "The pattern continues with the same 15-minute increment."));
+        register("letter_code", "decoder", new Hint("🔢 Cryptography Module",
+                "The scientist assigned numerical values to letters. " +
+                "To find TIME, calculate: T(20) + I(7) + M(15) + E(25). " +
+                "Add these four numbers together to get the total."));
+        register("energy_formula", "decoder", new Hint("⚡ Alchemy Calculator",
+                "When mixing energy sources in alchemy, you simply combine the quantities. " +
+                "If you have 2 units of one energy and 3 units of another, " +
+                "the total is the sum of both amounts."));
+        register("year_activation", "decoder", new Hint("📅 Chronal Database",
+                "Time machines often use significant dates as activation codes. " +
+                "Consider when major temporal events occurred in the story. " +
+                "The scientist likely traveled back to a year that holds importance " +
+                "in the current timeline."));
+        register("binary_code", "decoder", new Hint("🔍 Logic Processor",
+                "Binary codes use 1s and 0s. Each group of 8 bits represents one character " +
+                "using the ASCII standard. Convert each binary group to decimal, " +
+                "then find the corresponding letter."));
+        register("code", "decoder", new Hint("🔍 Logic Processor",
+                "Look for mathematical operations, sequences, or patterns. " +
+                "Break the problem down into smaller steps."));
+
+        register("riddle_clock", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "This describes an object with moving parts (hands) and a display (face) " +
+                "that measures time. Common examples include watches and clocks. " +
+                "The answer is a time-keeping device found in most rooms."));
+        register("riddle_timeline", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "The sequence shows the problem: the scientist built a machine, " +
+                "created an alternate reality, took power, then destroyed the machine. " +
+                "The logical next step is to reverse the damage by rebuilding what was lost."));
+        register("riddle_material", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "This material is essential for focusing energy in advanced technology. " +
+                "It's solid, often crystalline, and can luminesce. " +
+                "Think about what components are used in lasers or energy focusing devices."));
+        register("riddle_assembly", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "Time travel exposes travelers to extreme temporal forces. " +
+                "You need something that maintains your existence across time jumps. " +
+                "The missing component ensures you remain intact during temporal transit."));
+        register("riddle", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "Analyze each part of the riddle separately. Identify the key characteristics " +
+                "mentioned and think of objects that match all those descriptions."));
+    }
+
+    // === NEXUS RIFTS ===
+    // Generated puzzles differ every run, so their hints explain the method instead of the answer
+    static {
+        register("rift_time", "decoder", new Hint("⏰ Temporal Analyzer",
+                "Work out the minutes between each pair of readings. In deeper rifts the gap " +
+                "grows by the same amount every step. The dial only has 12 hours: after 12:59 comes 1:00."));
+        register("rift_cipher", "decoder", new Hint("🔢 Cryptography Module",
+                "Look up the value of every letter of the word and add them up. " +
+                "A letter that appears twice counts twice."));
+        register("rift_binary", "hintbook", new Hint("📖 Temporal Encyclopedia",
+                "Each group of 8 bits is one character in ASCII. Convert each group to decimal: " +
+                "65 is A, 66 is B, up to 90 for Z. Read the letters in order."));
+    }
+
+    public static void register(String puzzleId, String toolType, Hint hint) {
+        HINTS.computeIfAbsent(puzzleId, id -> new ConcurrentHashMap<>()).put(toolType, hint);
+    }
+
+    // The hint this tool type gives on the puzzle, or null if nothing is registered
+    public static Hint lookup(String puzzleId, String toolType) {
+        Map<String, Hint> byTool = HINTS.get(puzzleId);
+        return byTool == null || toolType == null ? null : byTool.get(toolType);
+    }
+
+    // === PUZZLE IDS ===
+    // The id of a lock of this colour; its lockpick hint names the colour, so it is registered here
+    static String lockId(String color) {
+        String id = "lock:" + color;
+        HINTS.computeIfAbsent(id, key -> new ConcurrentHashMap<>()).putIfAbsent("lockpick",
+                new Hint("🔓 Lockpick", "This lock requires a " + color + " key"));
+        return id;
+    }
+
+    /**
+     * Legacy fallback for puzzles saved before they carried an id: works out
+     * which hints a puzzle gets from its text. Called once per such puzzle,
+     * see Puzzle.getPuzzleId.
+     */
+    static String idFor(Puzzle puzzle) {
+        String description = puzzle.getDescription() == null ? "" : puzzle.getDescription();
+
+        if (puzzle instanceof LockPuzzle) {
+            return lockId(((LockPuzzle) puzzle).getLockColor());
+        }
+
+        if (puzzle instanceof CodePuzzle) {
+            if (description.startsWith(NexusGenerator.TIME_PREFIX)) return "rift_time";
+            if (description.startsWith(NexusGenerator.CIPHER_PREFIX)) return "rift_cipher";
+            if (description.contains("time sequence") || description.contains("12:00")) return "time_sequence";
+            if (description.contains("Scientist's code") || description.contains("T = 20")) return "letter_code";
+            if (description.contains("Mix elements") || description.contains("Temporal Energy")) return "energy_formula";
+            if (description.contains("activation code") || description.contains("year")) return "year_activation";
+            if (description.contains("binary")) return "binary_code";
+            return "code";
+        }
+
+        if (puzzle instanceof RiddlePuzzle) {
+            if (description.startsWith(NexusGenerator.BINARY_PREFIX)) return "rift_binary";
+            String text = description + " " + ((RiddlePuzzle) puzzle).getQuestion();
+            if (text.contains("hands but cannot clap") || text.contains("face but cannot see")) return "riddle_clock";
+            if (text.contains("Machine Built") || text.contains("Reality Split")) return "riddle_timeline";
+            if (text.contains("needed for time travel") || text.contains("glow but I'm not light")) return "riddle_material";
+            if (text.contains("Energy to power it") || text.contains("Crystal to focus it")) return "riddle_assembly";
+            return "riddle";
+        }
+
+        return "puzzle";
+    }
+
+    // === ITEM HINTS ===
+    // Time components and blueprints, worked out once per item definition
+    public static Hint forItem(ItemDefinition definition) {
+        return ITEM_HINTS.computeIfAbsent(definition, HintRegistry::itemHint);
+    }
+
+    private static Hint itemHint(ItemDefinition definition) {
+        String name = definition.getName();
+        if ("blueprint".equals(definition.getDetail())) {
+            String insight = name.contains("Schematic")
+                    ? "Time machines require three main systems: power generation, " +
+                      "temporal focusing, and reality anchoring. These schematics show " +
+                      "how to connect the energy core to the flux capacitor."
+                    : "Proper assembly sequence: power source first, then stabilizers, " +
+                      "finally the navigation system. Never activate without all safety systems in place.";
+            return new Hint("📜 " + name, "These schematics reveal: " + insight);
+        }
+
+        String effect;
+        if (name.contains("Crystal")) {
+            effect = "✨ This crystal can focus temporal energy for precise time jumps!";
+        } else if (name.contains("Circuit")) {
+            effect = "🔌 These circuits route temporal energy through the machine!";
+        } else if (name.contains("Flux Capacitor")) {
+            effect = "⚡ This is the core component that makes time travel possible!";
+        } else if (name.contains("Stabilizer")) {
+            effect = "🛡️ This prevents temporal paradoxes during time travel!";
+        } else {
+            effect = "🚀 This appears to be part of a time machine!";
+        }
+        return new Hint("💎 " + name, "It hums with temporal energy... " + effect);
+    }
+}
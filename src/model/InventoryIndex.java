@@ -0,0 +1,76 @@
+package model;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Bitsets over the player's inventory slots, one per attribute value, so an
+ * InventoryQuery is a few ANDs instead of a scan. Bit i is the stack at index i
+ * of the player's stack list. Owned and kept up to date by Player.
+ */
+final class InventoryIndex {
+    private static final Rarity[] RARITIES = Rarity.values();
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    final BitSet all = new BitSet();
+    final BitSet usable = new BitSet(); // stacks with at least one copy that still works
+    private final BitSet[] byRarity = newBitSets(RARITIES.length);
+    private final BitSet[] byItemType = newBitSets(ITEM_TYPES.length);
+    private final BitSet[] byCapability = newBitSets(Long.SIZE); // by Capability.indexOf
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) sets[i] = new BitSet();
+        return sets;
+    }
+
+    // Removing a stack shifts the ones after it, so removals rebuild everything (at most a few dozen slots)
+    void rebuild(List<ItemStack> stacks) {
+        all.clear();
+        usable.clear();
+        for (BitSet set : byRarity) set.clear();
+        for (BitSet set : byItemType) set.clear();
+        for (BitSet set : byCapability) set.clear();
+        for (int slot = 0; slot < stacks.size(); slot++) {
+            add(slot, stacks.get(slot));
+        }
+    }
+
+    void add(int slot, ItemStack stack) {
+        stack.slot = slot;
+        GachaItem head = stack.getHead();
+        all.set(slot);
+        byRarity[head.getRarity().ordinal()].set(slot);
+        byItemType[head.getItemType().ordinal()].set(slot);
+        long bits = head.getCapabilities();
+        while (bits != 0) {
+            long bit = Long.lowestOneBit(bits);
+            byCapability[Capability.indexOf(bit)].set(slot);
+            bits &= ~bit;
+        }
+        updateUsable(stack);
+    }
+
+    void updateUsable(ItemStack stack) {
+        usable.set(stack.slot, stack.getUsableCount() > 0);
+    }
+
+    BitSet rarity(Rarity rarity) {
+        return byRarity[rarity.ordinal()];
+    }
+
+    BitSet itemType(ItemType itemType) {
+        return byItemType[itemType.ordinal()];
+    }
+
+    // Slots holding an item with any of the given capability bits
+    BitSet anyCapability(long mask) {
+        BitSet result = new BitSet();
+        while (mask != 0) {
+            long bit = Long.lowestOneBit(mask);
+            result.or(byCapability[Capability.indexOf(bit)]);
+            mask &= ~bit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A filter over a player's inventory, started with {@link Player#query()}.
+ * Each filter narrows a bitset of slots; nothing is looked at until the
+ * result is iterated, and the result walks the player's own stacks instead
+ * of copying them. Don't change the inventory while iterating.
+ *
+ * <pre>
+ * for (GachaItem item : player.query().helpfulFor(puzzle).usable().items()) ...
+ * int epicKeys = player.query().ofType(ItemType.KEY).ofRarity(Rarity.EPIC).count();
+ * </pre>
+ */
+public final class InventoryQuery implements Iterable<ItemStack> {
+    private final List<ItemStack> stacks;
+    private final InventoryIndex index;
+    private final BitSet matches;
+    private int minUses; // 0 = no uses filter
+
+    InventoryQuery(List<ItemStack> stacks, InventoryIndex index) {
+        this.stacks = stacks;
+        this.index = index;
+        this.matches = (BitSet) index.all.clone();
+    }
+
+    // === FILTERS ===
+    public InventoryQuery ofType(ItemType itemType) {
+        matches.and(index.itemType(itemType));
+        return this;
+    }
+
+    public InventoryQuery ofRarity(Rarity rarity) {
+        matches.and(index.rarity(rarity));
+        return this;
+    }
+
+    public InventoryQuery ofToolType(String toolType) {
+        matches.and(index.anyCapability(Capability.tool(toolType)));
+        return this;
+    }
+
+    // Items the puzzle reacts to (its tool, keys, time components), see Puzzle.getHelpfulMask
+    public InventoryQuery helpfulFor(Puzzle puzzle) {
+        matches.and(index.anyCapability(puzzle.getHelpfulMask()));
+        return this;
+    }
+
+    // Stacks with at least one copy that still works
+    public InventoryQuery usable() {
+        matches.and(index.usable);
+        return this;
+    }
+
+    /**
+     * Tools whose front copy has at least {@code uses} uses left. Uses change
+     * with every use so they are not indexed; this is checked per result.
+     */
+    public InventoryQuery withUsesAtLeast(int uses) {
+        matches.and(index.itemType(ItemType.TOOL));
+        minUses = Math.max(minUses, uses);
+        return this;
+    }
+
+    // === RESULTS ===
+    @Override
+    public Iterator<ItemStack> iterator() {
+        return new Iterator<ItemStack>() {
+            private int next = advance(0);
+
+            private int advance(int from) {
+                int slot = matches.nextSetBit(from);
+                while (slot >= 0 && !passesUses(stacks.get(slot))) {
+                    slot = matches.nextSetBit(slot + 1);
+                }
+                return slot;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public ItemStack next() {
+                if (next < 0) throw new NoSuchElementException();
+                ItemStack stack = stacks.get(next);
+                next = advance(next + 1);
+                return stack;
+            }
+        };
+    }
+
+    private boolean passesUses(ItemStack stack) {
+        if (minUses == 0) return true;
+        GachaItem head = stack.getHead();
+        return head instanceof ToolItem && ((ToolItem) head).getUsesRemaining() >= minUses;
+    }
+
+    // The front copy of each matching stack
+    public Iterable<GachaItem> items() {
+        return () -> new Iterator<GachaItem>() {
+            private final Iterator<ItemStack> stacks = iterator();
+
+            @Override
+            public boolean hasNext() {
+                return stacks.hasNext();
+            }
+
+            @Override
+            public GachaItem next() {
+                return stacks.next().getHead();
+            }
+        };
+    }
+
+    // Matching stacks (slots), not copies
+    public int count() {
+        if (minUses == 0) return matches.cardinality();
+        int count = 0;
+        for (ItemStack ignored : this) count++;
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+}
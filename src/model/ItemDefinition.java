@@ -0,0 +1,129 @@
+package model;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, shared description of an item: everything except per-copy state
+ * such as a tool's remaining uses. Definitions are interned, so every copy of
+ * "Temporal Crystal" points at the same object and a save file stores its
+ * strings once instead of once per item.
+ */
+public final class ItemDefinition implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final ConcurrentHashMap<ItemDefinition, ItemDefinition> REGISTRY = new ConcurrentHashMap<>();
+
+    public enum Kind { TOOL, KEY, JUNK, PLAIN }
+
+    private final Kind kind;
+    private final String name;
+    private final String description;
+    private final Rarity rarity;
+    private final ItemType itemType;
+    private final String detail; // tool type, key colour or junk flavour text
+    private final int value;     // starting uses for tools, 1 for master keys
+    private transient long capabilities; // see Capability, recomputed after loading
+
+    private ItemDefinition(Kind kind, String name, String description, Rarity rarity,
+                           ItemType itemType, String detail, int value) {
+        this.kind = kind;
+        this.name = name;
+        this.description = description;
+        this.rarity = rarity;
+        this.itemType = itemType;
+        this.detail = detail;
+        this.value = value;
+        this.capabilities = computeCapabilities();
+    }
+
+    private long computeCapabilities() {
+        switch (kind) {
+            case TOOL: return Capability.ofTool(detail);
+            case KEY: return Capability.ofKey(detail, value != 0);
+            default: return 0L;
+        }
+    }
+
+    // === FACTORIES (always return the interned instance) ===
+    // Saves keep each copy's uses in one unsigned byte, see ItemStack
+    public static final int MAX_TOOL_USES = 0xFF;
+
+    public static ItemDefinition tool(String name, String description, Rarity rarity, String toolType, int uses) {
+        if (uses < 0 || uses > MAX_TOOL_USES) {
+            throw new IllegalArgumentException("Tool '" + name + "' needs 0 to " + MAX_TOOL_USES + " uses, not " + uses);
+        }
+        return intern(new ItemDefinition(Kind.TOOL, name, description, rarity, ItemType.TOOL, toolType, uses));
+    }
+
+    public static ItemDefinition key(String name, String description, Rarity rarity, String keyColor, boolean masterKey) {
+        return intern(new ItemDefinition(Kind.KEY, name, description, rarity, ItemType.KEY, keyColor, masterKey ? 1 : 0));
+    }
+
+    public static ItemDefinition junk(String name, String description, Rarity rarity, String flavorText) {
+        return intern(new ItemDefinition(Kind.JUNK, name, description, rarity, ItemType.TOOL, flavorText, 0));
+    }
+
+    // Items defined directly in code (e.g. UI placeholders)
+    public static ItemDefinition plain(String name, String description, Rarity rarity, ItemType itemType) {
+        return intern(new ItemDefinition(Kind.PLAIN, name, description, rarity, itemType, null, 0));
+    }
+
+    private static ItemDefinition intern(ItemDefinition definition) {
+        ItemDefinition existing = REGISTRY.putIfAbsent(definition, definition);
+        return existing != null ? existing : definition;
+    }
+
+    // A copy with the given per-copy state (tool uses); null for plain items, which never go into an inventory
+    GachaItem newItem(int uses) {
+        switch (kind) {
+            case TOOL: return new ToolItem(this, uses);
+            case KEY: return new KeyItem(this);
+            case JUNK: return new JunkItem(this);
+            default: return null;
+        }
+    }
+
+    // A loaded save shares the definitions that are already in memory
+    private Object readResolve() throws ObjectStreamException {
+        capabilities = computeCapabilities();
+        return intern(this);
+    }
+
+    public static int registeredCount() {
+        return REGISTRY.size();
+    }
+
+    public Kind getKind() { return kind; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public Rarity getRarity() { return rarity; }
+    public ItemType getItemType() { return itemType; }
+    public String getDetail() { return detail; }
+    public int getValue() { return value; }
+    public long getCapabilities() { return capabilities; }
+    public boolean isTimeMachinePart() { return (capabilities & Capability.TIME_COMPONENT) != 0; }
+    // Same in every run and pool order (String.hashCode is fixed by the language spec), e.g. for the pull journal
+    public int getStableId() { return name.hashCode(); }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemDefinition)) return false;
+        ItemDefinition other = (ItemDefinition) o;
+        return kind == other.kind && value == other.value && rarity == other.rarity
+                && itemType == other.itemType && Objects.equals(name, other.name)
+                && Objects.equals(description, other.description) && Objects.equals(detail, other.detail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, name, description, rarity, itemType, detail, value);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + name;
+    }
+}
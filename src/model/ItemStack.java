@@ -0,0 +1,164 @@
+package model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * All copies of one item definition in an inventory slot.
+ * Only the front copy (the head) is a real object; for tools the other copies
+ * are just their remaining uses, so a stack of 30 Broken Gears is one object
+ * and a 30 byte array.
+ */
+public class ItemStack implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ItemDefinition definition;
+    private GachaItem head;   // the copy that is shown and used
+    private int count;
+    private byte[] spares;    // remaining uses of the other copies (tools only), unsigned
+    private int spareCount;
+    private int[] spareUses;  // only in saves from before byte spares, moved into spares on load
+    transient int slot;       // position in the player's stack list, kept by InventoryIndex
+
+    ItemStack(GachaItem first) {
+        this.definition = first.getDefinition();
+        this.head = first;
+        this.count = 1;
+        this.spares = new byte[0];
+    }
+
+    static final int MAX_USES = ItemDefinition.MAX_TOOL_USES; // tools are never defined with more
+
+    /**
+     * Rebuilds a stack from the compact form Player saves: {@code uses[from..to)}
+     * are the copies' remaining uses, head first. Returns null for definitions
+     * that have no inventory item (plain ones).
+     */
+    static ItemStack restore(ItemDefinition definition, byte[] uses, int from, int to) {
+        GachaItem head = definition.newItem(uses[from] & 0xFF);
+        if (head == null) return null;
+        ItemStack stack = new ItemStack(head);
+        stack.count = to - from;
+        if (stack.head instanceof ToolItem) {
+            stack.spares = Arrays.copyOfRange(uses, from + 1, to);
+            stack.spareCount = stack.spares.length;
+        }
+        return stack;
+    }
+
+    // Writes every copy's definition id and uses from position at on, returns the next free position
+    int writeCopies(short id, short[] ids, byte[] uses, int at) {
+        Arrays.fill(ids, at, at + count, id);
+        if (head instanceof ToolItem) {
+            uses[at] = (byte) Math.min(((ToolItem) head).getUsesRemaining(), MAX_USES);
+            System.arraycopy(spares, 0, uses, at + 1, spareCount);
+        }
+        return at + count;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (spares == null) {
+            spares = new byte[spareUses == null ? 0 : spareUses.length];
+            for (int i = 0; i < spares.length; i++) {
+                spares[i] = (byte) Math.min(spareUses[i], MAX_USES);
+            }
+            spareUses = null;
+        }
+    }
+
+    void add(GachaItem item) {
+        count++;
+        if (head instanceof ToolItem) {
+            int uses = ((ToolItem) item).getUsesRemaining();
+            if (((ToolItem) head).getUsesRemaining() <= 0 && uses > 0) {
+                // Keep a working copy in front
+                pushSpare(((ToolItem) head).getUsesRemaining());
+                head = item;
+            } else {
+                pushSpare(uses);
+            }
+        }
+    }
+
+    /**
+     * Takes one copy out: the head if that is the item given, else a spare.
+     * Returns false when the stack is now empty.
+     */
+    boolean removeOne(GachaItem item) {
+        count--;
+        if (count == 0) {
+            head = null;
+            return false;
+        }
+
+        if (head instanceof ToolItem) {
+            if (item == head) {
+                head = new ToolItem(definition, popSpare()); // next copy moves to the front
+            } else {
+                removeSpare(((ToolItem) item).getUsesRemaining());
+            }
+        }
+        return true;
+    }
+
+    // A worn-out front tool goes to the back if another copy still has uses
+    void rotateIfBroken() {
+        if (!(head instanceof ToolItem) || ((ToolItem) head).getUsesRemaining() > 0) return;
+
+        for (int i = 0; i < spareCount; i++) {
+            if (spares[i] != 0) {
+                int uses = popSpare();
+                pushSpare(0);
+                head = new ToolItem(definition, uses);
+                return;
+            }
+        }
+    }
+
+    private void pushSpare(int uses) {
+        if (spareCount == spares.length) {
+            spares = Arrays.copyOf(spares, Math.max(4, spareCount * 2));
+        }
+        spares[spareCount++] = (byte) Math.min(Math.max(uses, 0), MAX_USES);
+    }
+
+    // Drops a spare with exactly these uses, or the best one if there is none
+    private void removeSpare(int uses) {
+        for (int i = 0; i < spareCount; i++) {
+            if ((spares[i] & 0xFF) == uses) {
+                spares[i] = spares[--spareCount];
+                return;
+            }
+        }
+        popSpare();
+    }
+
+    private int popSpare() {
+        // Prefer the copy with the most uses left
+        int best = 0;
+        for (int i = 1; i < spareCount; i++) {
+            if ((spares[i] & 0xFF) > (spares[best] & 0xFF)) best = i;
+        }
+        int uses = spares[best] & 0xFF;
+        spares[best] = spares[--spareCount];
+        return uses;
+    }
+
+    // Copies that can still be used (every copy, for anything but tools)
+    public int getUsableCount() {
+        if (!(head instanceof ToolItem)) return count;
+
+        int usable = ((ToolItem) head).getUsesRemaining() > 0 ? 1 : 0;
+        for (int i = 0; i < spareCount; i++) {
+            if (spares[i] != 0) usable++;
+        }
+        return usable;
+    }
+
+    public ItemDefinition getDefinition() { return definition; }
+    public GachaItem getHead() { return head; }
+    public int getCount() { return count; }
+}
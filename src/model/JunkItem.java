@@ -0,0 +1,36 @@
+package model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * Flavour item that cannot help with any puzzle, it only prints its message.
+ */
+public class JunkItem extends GachaItem {
+    private static final long serialVersionUID = 8857832427019674345L; // value from before it was declared
+
+    public JunkItem(String name, String description, Rarity rarity, String flavorText) {
+        this(ItemDefinition.junk(name, description, rarity, flavorText));
+    }
+
+    public JunkItem(ItemDefinition definition) {
+        super(definition);
+    }
+
+    @Override
+    public boolean use(Puzzle puzzle) {
+        System.out.println(getFlavorText());
+        return false;
+    }
+
+    public String getFlavorText() { return definition.getDetail(); }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        if (legacy != null) {
+            definition = ItemDefinition.junk(legacy.name, legacy.description, legacy.rarity,
+                    (String) fields.get("flavorText", null));
+            legacy = null;
+        }
+    }
+}
@@ -1,28 +1,41 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 public class KeyItem extends GachaItem {
-    private String keyColor;
-    private boolean isMasterKey;
+    private static final long serialVersionUID = -4187362422130030531L; // value from before it was declared
 
     public KeyItem(String name, String description, Rarity rarity, String keyColor, boolean isMasterKey) {
-        super(name, description, rarity, ItemType.KEY);
-        this.keyColor = keyColor;
-        this.isMasterKey = isMasterKey;
+        this(ItemDefinition.key(name, description, rarity, keyColor, isMasterKey));
+    }
+
+    public KeyItem(ItemDefinition definition) {
+        super(definition);
     }
 
+    // Keys have no per-copy state, every copy can share one instance
+
     // ✅ FIX: KeyItem should directly solve the puzzle
     @Override
     public boolean use(Puzzle puzzle) {
-        if(puzzle instanceof LockPuzzle) {
-            LockPuzzle lockPuzzle = (LockPuzzle) puzzle;
-            if(this.keyColor.equals(lockPuzzle.getLockColor()) || this.isMasterKey) {
-                lockPuzzle.markSolved(); // ✅ Direct solution
-                return true;
-            }
+        if((getCapabilities() & puzzle.getUnlockMask()) != 0) {
+            puzzle.markSolved(); // ✅ Direct solution
+            return true;
         }
         return false;
     }
 
-    public String getKeyColor() { return keyColor; }
-    public boolean isMasterKey() { return isMasterKey; }
+    public String getKeyColor() { return definition.getDetail(); }
+    public boolean isMasterKey() { return definition.getValue() != 0; }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        if (legacy != null) {
+            // Old saves stored colour and master flag per item
+            definition = ItemDefinition.key(legacy.name, legacy.description, legacy.rarity,
+                    (String) fields.get("keyColor", null), fields.get("isMasterKey", false));
+            legacy = null;
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package model;
+
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamException;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Saves from before the gacha pool file hold its two junk items (Distorted
+ * Watch, Melted Components) as anonymous classes of GameManager, named
+ * GameManager$1 and GameManager$2, which no longer exist. {@link #substitute}
+ * swaps their class descriptors for stand-ins with the same fields, and each
+ * stand-in turns into the JunkItem the pool file defines.
+ */
+public final class LegacyPoolItems {
+    private static final Pattern ANONYMOUS_ITEM = Pattern.compile("model\\.GameManager\\$\\d+");
+
+    // The flavour text only lived in the anonymous classes' code, see data/gacha_pools.txt
+    private static final Map<String, String> FLAVOR_TEXT = Map.of(
+            "Distorted Watch", "The watch spins wildly... but reveals nothing useful.",
+            "Melted Components", "These components are useless... but show how difficult time travel is.");
+    private static final String DEFAULT_FLAVOR = "It does nothing useful.";
+
+    private LegacyPoolItems() {}
+
+    // For ObjectInputStream.readClassDescriptor: the stand-in's descriptor for an old anonymous item, else the same one
+    public static ObjectStreamClass substitute(ObjectStreamClass streamClass) {
+        if (!ANONYMOUS_ITEM.matcher(streamClass.getName()).matches()) {
+            return streamClass;
+        }
+        // Compilers before JDK 18 always gave anonymous classes a reference to the outer instance
+        return ObjectStreamClass.lookup(streamClass.getField("this$0") != null ? WithOuter.class : Plain.class);
+    }
+
+    private static JunkItem toJunk(GachaItem item) {
+        GachaItem.LegacyFields legacy = item.legacy;
+        String flavor = FLAVOR_TEXT.getOrDefault(legacy.name, DEFAULT_FLAVOR);
+        return new JunkItem(ItemDefinition.junk(legacy.name, legacy.description, legacy.rarity, flavor));
+    }
+
+    // === STAND-INS (only ever created by deserialization) ===
+    static final class Plain extends GachaItem {
+        private static final long serialVersionUID = 1L;
+
+        private Plain() {
+            super((ItemDefinition) null);
+        }
+
+        @Override
+        public boolean use(Puzzle puzzle) {
+            return false;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return toJunk(this);
+        }
+    }
+
+    static final class WithOuter extends GachaItem {
+        private static final long serialVersionUID = 1L;
+        private GameManager this$0; // read and dropped, matches the anonymous class's only field
+
+        private WithOuter() {
+            super((ItemDefinition) null);
+        }
+
+        @Override
+        public boolean use(Puzzle puzzle) {
+            return false;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return toJunk(this);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 public class LockPuzzle extends Puzzle {
+    private static final long serialVersionUID = -5194326905133320344L; // value from before it was declared
     private String requiredKeyType;
     private String lockColor;
 
@@ -9,6 +13,12 @@ public class LockPuzzle extends Puzzle {
         super(description, coinReward, difficultyLevel, true);
         this.requiredKeyType = requiredKeyType;
         this.lockColor = lockColor;
+        setPuzzleId(HintRegistry.lockId(lockColor));
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        HintRegistry.lockId(lockColor); // the lockpick hint is registered per colour, not saved
     }
 
     @Override
@@ -17,16 +27,29 @@ public class LockPuzzle extends Puzzle {
             return false;
         }
 
-        if (item instanceof KeyItem) {
-            KeyItem key = (KeyItem) item;
-            if (key.getKeyColor().equals(lockColor) || key.isMasterKey()) {
-                markSolved();
-                return true;
-            }
+        if (item != null && (item.getCapabilities() & getUnlockMask()) != 0) {
+            markSolved();
+            return true;
         }
         return false;
     }
 
+    @Override
+    public long getToolMask() {
+        return super.getToolMask() | Capability.LOCKPICK;
+    }
+
+    @Override
+    public long getHelpfulMask() {
+        return super.getHelpfulMask() | Capability.LOCKPICK;
+    }
+
+    // A key of the lock's colour, or any master key
+    @Override
+    public long getUnlockMask() {
+        return Capability.keyColor(lockColor) | Capability.MASTER_KEY;
+    }
+
     public String getRequiredKeyType() {
         return requiredKeyType;
     }
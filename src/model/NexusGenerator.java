@@ -0,0 +1,201 @@
+package model;
+
+import util.RandomProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Builds the endless rooms beyond the Temporal Nexus. Rift n only depends on
+ * the session seed and n, so a seed always gives the same rifts no matter in
+ * which order they are built. Every rift has a clock sequence, a letter-value
+ * cipher and a binary message, and they get longer and less regular the
+ * deeper the rift. The Nexus itself gets the depth 0 set.
+ *
+ * Rifts are built on a background thread: {@link #prefetch} starts on the next
+ * one while the player works on the current room, {@link #take} hands it over
+ * and only builds it on the spot if it was never prefetched.
+ */
+public class NexusGenerator {
+    public static final int NEXUS_ROOM_NUMBER = 5;
+
+    private static final String RIFT_NAME = "Nexus Rift ";
+    // HintRegistry recognises generated puzzles from older saves, which carry no hint id, by these openings
+    static final String RIFT_TEXT_PREFIX = "Rift ";
+    static final String TIME_PREFIX = RIFT_TEXT_PREFIX + "chronometer";
+    static final String CIPHER_PREFIX = RIFT_TEXT_PREFIX + "cipher";
+    static final String BINARY_PREFIX = RIFT_TEXT_PREFIX + "beacon";
+
+    // Generation stops changing with depth here, deeper rifts share timing histograms
+    private static final int MAX_TIMING_DEPTH = 8;
+
+    private static final int[] TIME_STEPS = {5, 10, 15, 20, 25, 30, 45};
+    private static final String[] CIPHER_WORDS = {"TIME", "FLUX", "CORE", "GATE", "RIFT", "WARP", "NOVA", "ECHO", "LOOP", "DAWN"};
+    private static final String[] LONG_CIPHER_WORDS = {"EPOCH", "ORBIT", "PULSE", "QUARK", "DRIFT", "PRISM", "SPARK", "LIGHT"};
+    private static final String[][] BINARY_WORDS = {
+            {"SUN", "DAY", "AGE", "ERA", "NOW", "YET", "OLD", "NEW", "END", "ARC"},
+            {"PAST", "NEXT", "ZERO", "HOUR", "TICK", "TOCK", "YEAR", "MOON", "STAR", "VOID"},
+            {"CLOCK", "EPOCH", "TIMER", "OMEGA", "ALPHA", "DELTA", "SOLAR", "LUNAR", "CYCLE", "RELIC"}
+    };
+    private static final String[] RIFT_DESCRIPTIONS = {
+            "A tear in the timeline where clocks run backwards and forwards at once. Strange signals echo from every direction.",
+            "Fragments of forgotten centuries drift past like leaves. Somewhere in the noise, a message is waiting.",
+            "The floor is a giant clock face, its hands spinning out of control. Only the right readings will steady them.",
+            "Crystals hum with stored time, each one replaying a moment that never happened.",
+            "A silent corridor between realities. Beacons blink in a language older than the scientist's notes."
+    };
+
+    // One thread is plenty, a rift takes microseconds to build; it must just never be the UI thread
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "nexus-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RandomProvider randomProvider;
+    private final Supplier<List<GachaItem>> nexusPool; // the Nexus machine's current pool, reloads included
+    private final Map<Integer, Future<Room>> pending = new ConcurrentHashMap<>();
+
+    public NexusGenerator(RandomProvider randomProvider, Supplier<List<GachaItem>> nexusPool) {
+        this.randomProvider = randomProvider;
+        this.nexusPool = nexusPool;
+    }
+
+    // === PREFETCHING ===
+    // Starts building the rift in the background, does nothing if it is already on its way
+    public void prefetch(int depth) {
+        pending.computeIfAbsent(depth, d -> PREFETCHER.submit(() -> generate(d)));
+    }
+
+    /**
+     * The prefetched rift if it is ready. Never waits for the prefetch thread:
+     * if the rift is still being built (or was never prefetched) it is built
+     * here instead, which gives the same rift since it only depends on the seed.
+     */
+    public Room take(int depth) {
+        Future<Room> future = pending.remove(depth);
+        if (future != null) {
+            if (!future.isDone()) {
+                future.cancel(false);
+            } else if (!future.isCancelled()) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("⚠️ Rift prefetch failed, building it now: " + e.getCause());
+                }
+            }
+        }
+        return generate(depth);
+    }
+
+    // === GENERATION ===
+    /**
+     * Builds rift number depth (1 and up), locked and with the Nexus gacha pool.
+     */
+    public Room generate(int depth) {
+        SplittableRandom random = randomProvider.forKey("nexus:" + depth);
+        Room rift = new Room(NEXUS_ROOM_NUMBER + depth, RIFT_NAME + depth,
+                RIFT_DESCRIPTIONS[random.nextInt(RIFT_DESCRIPTIONS.length)]);
+        addPuzzles(rift, depth, random);
+
+        List<GachaItem> pool = nexusPool.get();
+        if (!pool.isEmpty()) rift.getGachaMachine().replacePool(pool);
+        return rift;
+    }
+
+    // Adds the puzzle set for the given depth, 0 being the Nexus itself
+    public void addPuzzles(Room room, int depth) {
+        addPuzzles(room, depth, randomProvider.forKey("nexus:" + depth));
+    }
+
+    private void addPuzzles(Room room, int depth, SplittableRandom random) {
+        int difficulty = Math.min(5, 3 + depth / 2);
+        int reward = 40 + 10 * Math.min(depth, 8);
+
+        add(room, clockSequence(random, depth, reward, difficulty), "rift_time", depth);
+        add(room, letterCipher(random, depth, reward + 5, difficulty), "rift_cipher", depth);
+        add(room, binaryMessage(random, depth, reward + 10, difficulty), "rift_binary", depth);
+    }
+
+    // Generated text is different in every rift, so hints and timings go by kind (and depth) instead
+    private static void add(Room room, Puzzle puzzle, String puzzleId, int depth) {
+        puzzle.setPuzzleId(puzzleId);
+        puzzle.setTimingKey(puzzleId + "@" + Math.min(depth, MAX_TIMING_DEPTH));
+        room.addPuzzle(puzzle);
+    }
+
+    // Times on a 12-hour dial; from depth 3 on every step is longer than the last
+    private CodePuzzle clockSequence(SplittableRandom random, int depth, int reward, int difficulty) {
+        int time = random.nextInt(144) * 5;
+        int step = TIME_STEPS[random.nextInt(TIME_STEPS.length)];
+        int growth = depth >= 3 ? 5 * (1 + random.nextInt(2)) : 0;
+        int shown = depth >= 5 ? 5 : 4;
+
+        StringBuilder description = new StringBuilder(TIME_PREFIX).append(" readings: ");
+        for (int i = 0; i < shown; i++) {
+            description.append(clock(time)).append(" → ");
+            time += step + growth * i;
+        }
+        description.append('?');
+
+        return new CodePuzzle(description.toString(), reward, difficulty, clock(time), 3);
+    }
+
+    private static String clock(int minutes) {
+        minutes = Math.floorMod(minutes, 12 * 60);
+        int hour = minutes / 60;
+        return String.format("%d:%02d", hour == 0 ? 12 : hour, minutes % 60);
+    }
+
+    // Random letter values like the scientist's T-I-M-E code, each letter listed once
+    private CodePuzzle letterCipher(SplittableRandom random, int depth, int reward, int difficulty) {
+        String[] words = depth >= 3 ? LONG_CIPHER_WORDS : CIPHER_WORDS;
+        String word = words[random.nextInt(words.length)];
+
+        int[] values = new int[26];
+        StringBuilder description = new StringBuilder(CIPHER_PREFIX).append(": ");
+        int total = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = word.charAt(i) - 'A';
+            if (values[letter] == 0) {
+                values[letter] = 1 + random.nextInt(26);
+                description.append(word.charAt(i)).append(" = ").append(values[letter]).append(", ");
+            }
+            total += values[letter];
+        }
+        description.setLength(description.length() - 2);
+        description.append(". What is ").append(String.join("-", word.split(""))).append(" worth?");
+
+        return new CodePuzzle(description.toString(), reward, difficulty, String.valueOf(total), 3);
+    }
+
+    // A word as 8-bit ASCII groups, three letters at first and five from depth 4
+    private RiddlePuzzle binaryMessage(SplittableRandom random, int depth, int reward, int difficulty) {
+        String[] words = BINARY_WORDS[Math.min(depth / 2, BINARY_WORDS.length - 1)];
+        String word = words[random.nextInt(words.length)];
+
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < word.length(); i++) {
+            if (i > 0) bits.append(' ');
+            bits.append(Integer.toBinaryString(0x100 | word.charAt(i)).substring(1));
+        }
+
+        return new RiddlePuzzle(
+                BINARY_PREFIX + " pulses in binary: " + bits,
+                reward,
+                difficulty,
+                "Each group of 8 bits is one ASCII letter. What word is the beacon sending?",
+                word.toLowerCase(),
+                "Convert each group to a number: 65 is A, 66 is B, and so on"
+        );
+    }
+}
@@ -2,36 +2,153 @@ package model;
 
 import exceptions.InventoryFullException;
 import exceptions.WrongItemException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Player implements  Serializable{
     private static final long serialVersionUID = 1L;
-    private final String name;
-    private int coins;
-    private final List<GachaItem> inventory;
-    private int totalPulls;
+    private static final AtomicIntegerFieldUpdater<Player> TOTAL_PULLS =
+            AtomicIntegerFieldUpdater.newUpdater(Player.class, "totalPulls");
+    private String name; // only changed by copyStateFrom
+    private int coins; // coins and the two totals below are the saved form of ledger
+    private transient List<ItemStack> stacks; // one slot per item definition
+
+    // Saved form of the stacks, only set while writing: one entry per copy, grouped by stack
+    private ItemDefinition[] itemDefinitions; // the save's own definition table, index = stack
+    private short[] itemIds;                  // per copy: index into itemDefinitions
+    private byte[] itemUses;                  // per copy: tool uses left (0 for anything else)
+    private volatile int totalPulls; // bumped without a lock by GachaService pulls
     private int puzzlesSolved;
     private static final int MAX_INVENTORY_SIZE = 20;
     private int totalCoinsEarned;
     private int totalCoinsSpent;
     private int roomsCompleted;
     private int timeMachinePartsCollected;
+    private transient CoinLedger ledger;
+    private transient PlayerHistory history; // coin, item and puzzle events since the last full save
+    private transient Runnable historyListener;
+
+    // Inventory indexes, kept in step with the stacks so the panels' queries never scan them
+    private static final Rarity[] RARITIES = Rarity.values();
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+    private transient int[] rarityCounts;   // by Rarity ordinal
+    private transient int[] itemTypeCounts; // by ItemType ordinal
+    private transient Map<ItemDefinition, ItemStack> stackByDefinition;
+    private transient Map<String, ToolSlot> toolsByType;
+    private transient int[] capabilityCounts; // usable copies per Capability bit
+    private transient long heldCapabilities;  // bits with a non-zero count
+    private transient InventoryIndex slotIndex; // bitsets behind query()
+
+    // Tool stacks of one tool type, with how many copies they hold and how many still have uses
+    private static final class ToolSlot {
+        final List<ItemStack> stacks = new ArrayList<>();
+        int copies;
+        int usable;
+    }
 
     public Player(String name){
         this.name = sanitizePlayerName(name);
         this.coins = 100;
-        this.inventory = new ArrayList<>();
+        this.stacks = new ArrayList<>();
         this.totalPulls = 0;
         this.puzzlesSolved = 0;
         this.totalCoinsEarned = 0;
         this.totalCoinsSpent = 0;
+        this.ledger = new CoinLedger(coins, totalCoinsEarned, totalCoinsSpent);
+        this.history = new PlayerHistory();
         this.roomsCompleted = 0;
         this.timeMachinePartsCollected = 0;
+        rebuildInventoryIndex();
+    }
+
+    // Indexes are transient, rebuild them when a save is loaded
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        coins = fields.get("coins", 0);
+        totalPulls = fields.get("totalPulls", 0);
+        puzzlesSolved = fields.get("puzzlesSolved", 0);
+        totalCoinsEarned = fields.get("totalCoinsEarned", 0);
+        totalCoinsSpent = fields.get("totalCoinsSpent", 0);
+        roomsCompleted = fields.get("roomsCompleted", 0);
+        timeMachinePartsCollected = fields.get("timeMachinePartsCollected", 0);
+        ledger = new CoinLedger(coins, totalCoinsEarned, totalCoinsSpent);
+        history = new PlayerHistory();
+        stacks = new ArrayList<>();
+
+        ItemDefinition[] table = (ItemDefinition[]) fields.get("itemDefinitions", null);
+        if (table != null) {
+            short[] ids = (short[]) fields.get("itemIds", null);
+            byte[] uses = (byte[]) fields.get("itemUses", null);
+            int from = 0;
+            while (from < ids.length) {
+                int to = from + 1;
+                while (to < ids.length && ids[to] == ids[from]) to++;
+                ItemStack stack = ItemStack.restore(table[ids[from]], uses, from, to);
+                if (stack != null) {
+                    stacks.add(stack);
+                } else {
+                    System.err.println("⚠️ Skipping saved " + table[ids[from]] + ", it is not an inventory item");
+                }
+                from = to;
+            }
+            rebuildInventoryIndex();
+            return;
+        }
+
+        // Older saves kept a list of stacks, and before that a flat item list
+        List<ItemStack> savedStacks = (List<ItemStack>) savedField(fields, "stacks");
+        if (savedStacks != null) {
+            stacks.addAll(savedStacks);
+            rebuildInventoryIndex();
+            return;
+        }
+        rebuildInventoryIndex();
+        List<GachaItem> oldInventory = (List<GachaItem>) savedField(fields, "inventory");
+        if (oldInventory != null) {
+            for (GachaItem item : oldInventory) stackItem(item); // even past the slot limit
+        }
+    }
+
+    // A field the save may have but this class no longer declares
+    private static Object savedField(ObjectInputStream.GetField fields, String name) throws IOException {
+        return fields.getObjectStreamClass().getField(name) != null ? fields.get(name, null) : null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        CoinLedger.Balance balance = ledger.getBalance();
+        coins = balance.getCoins();
+        totalCoinsEarned = balance.getEarned();
+        totalCoinsSpent = balance.getSpent();
+
+        itemDefinitions = new ItemDefinition[stacks.size()];
+        itemIds = new short[getTotalItemCount()];
+        itemUses = new byte[itemIds.length];
+        int at = 0;
+        for (int i = 0; i < stacks.size(); i++) {
+            itemDefinitions[i] = stacks.get(i).getDefinition();
+            at = stacks.get(i).writeCopies((short) i, itemIds, itemUses, at);
+        }
+        try {
+            out.defaultWriteObject();
+        } finally {
+            itemDefinitions = null;
+            itemIds = null;
+            itemUses = null;
+        }
     }
 
     private String sanitizePlayerName(String name){
@@ -50,34 +167,47 @@ public class Player implements  Serializable{
      */
     public String useItemWithFeedback(GachaItem item, Puzzle puzzle) {
         // Check if item is in inventory
-        if (!inventory.contains(item)) {
+        ItemStack stack = findStack(item);
+        if (stack == null) {
             return "❌ You don't have '" + item.getName() + "' in your inventory!";
         }
+        item = stack.getHead(); // always use the stack's front copy
 
         // Check if puzzle is already solved
         if (puzzle.isSolved()) {
             return "ℹ️ This puzzle has already been solved!";
         }
 
-        // Try to use the item on the puzzle
-        boolean success = item.use(puzzle);
+        // Try to use the item on the puzzle; tools also say what they revealed
+        HintRegistry.Hint hint = null;
+        boolean success;
+        if (item instanceof ToolItem) {
+            hint = ((ToolItem) item).useForHint(puzzle);
+            success = hint != null;
+        } else {
+            success = PuzzleTypes.of(puzzle).useItem(puzzle, item);
+        }
+        toolUsed(item);
+        recordUse(item, success);
 
         if (success) {
             puzzlesSolved++;
+            String revealed = hint == null ? "" : "\n\n" + hint;
 
             // Special handling for different item types
             if (item instanceof ToolItem) {
                 ToolItem tool = (ToolItem) item;
                 if (tool.getUsesRemaining() <= 0) {
                     // Remove used-up tools from inventory
-                    inventory.remove(item);
-                    return String.format("✅ Used %s successfully! The item broke and was removed from inventory.",
-                            item.getName());
+                    unstackItem(item);
+                    history.record(PlayerHistory.ITEM_BROKE, item.getDefinition(), 0);
+                    return String.format("✅ Used %s successfully! The item broke and was removed from inventory.%s",
+                            item.getName(), revealed);
                 }
             }
 
-            return String.format("✅ Used %s successfully! The puzzle gives you a new perspective.",
-                    item.getName());
+            return String.format("✅ Used %s successfully! The puzzle gives you a new perspective.%s",
+                    item.getName(), revealed);
         } else {
             // Provide specific feedback based on item type
             if (item instanceof KeyItem) {
@@ -85,6 +215,9 @@ public class Player implements  Serializable{
                         item.getName());
             } else if (item instanceof ToolItem) {
                 ToolItem tool = (ToolItem) item;
+                if (tool.isBroken()) {
+                    return String.format("🛠️ The %s is broken and cannot be used!", tool.getName());
+                }
                 return String.format("🛠️ The %s can't help with this type of puzzle. Try a different approach.",
                         tool.getName());
             } else {
@@ -102,7 +235,7 @@ public class Player implements  Serializable{
 
         // If puzzle was solved, award coins
         if (puzzle.isSolved()) {
-            int reward = puzzle.getCoinReward();
+            int reward = PuzzleTypes.of(puzzle).reward(puzzle);
             earnCoins(reward);
             result += String.format("\n💰 Solved! You earned %d coins!", reward);
         }
@@ -116,11 +249,15 @@ public class Player implements  Serializable{
      * Keep for compatibility with existing code that expects boolean + exceptions
      */
     public boolean useItem(GachaItem item, Puzzle puzzle) throws WrongItemException {
-        if (!inventory.contains(item)) {
+        ItemStack stack = findStack(item);
+        if (stack == null) {
             throw new WrongItemException("Item '" + item.getName() + "' is not in your inventory!");
         }
+        item = stack.getHead();
 
         boolean success = item.use(puzzle);
+        toolUsed(item);
+        recordUse(item, success);
 
         if(!success) {
             throw new WrongItemException("The " + item.getName() + " cannot be used on this type of puzzle!");
@@ -139,17 +276,17 @@ public class Player implements  Serializable{
                 return false;
             }
 
-            if (coins < 0) {
+            if (ledger.getCoins() < 0) {
                 System.err.println("Player state invalid: Negative coins");
                 return false;
             }
 
-            if (inventory == null) {
+            if (stacks == null) {
                 System.err.println("Player state invalid: No inventory");
                 return false;
             }
 
-            if (inventory.size() > MAX_INVENTORY_SIZE) {
+            if (stacks.size() > MAX_INVENTORY_SIZE) {
                 System.err.println("Player state invalid: Inventory overflow");
                 return false;
             }
@@ -162,12 +299,13 @@ public class Player implements  Serializable{
     }
 
     public String safeRemoveItem(GachaItem item) {
-        if (!inventory.contains(item)) {
+        if (findStack(item) == null) {
             return "❌ Item not found in inventory.";
         }
 
         try {
-            inventory.remove(item);
+            unstackItem(item);
+            history.record(PlayerHistory.ITEM_REMOVED, item.getDefinition(), usesOf(item));
 
             // Update time machine parts count if it was a component
             if (item instanceof ToolItem) {
@@ -185,11 +323,13 @@ public class Player implements  Serializable{
     }
 
     // === INVENTORY MANAGEMENT ===
+    // Copies of an item already held go onto its stack and need no new slot
     public void addItem(GachaItem item) throws InventoryFullException {
-        if (inventory.size() >= MAX_INVENTORY_SIZE) {
-            throw new InventoryFullException(inventory.size(), MAX_INVENTORY_SIZE);
+        if (findStack(item) == null && stacks.size() >= MAX_INVENTORY_SIZE) {
+            throw new InventoryFullException(stacks.size(), MAX_INVENTORY_SIZE);
         }
-        this.inventory.add(item);
+        stackItem(item);
+        history.record(PlayerHistory.ITEM_ADDED, item.getDefinition(), usesOf(item));
 
         // Track if it's a time machine component
         if (item instanceof ToolItem) {
@@ -200,60 +340,254 @@ public class Player implements  Serializable{
         }
     }
 
+    // Whether a pull from these items could land: a free slot, or a held item it would stack onto
+    public boolean hasRoomForAny(Collection<GachaItem> possibleItems) {
+        if (stacks.size() < MAX_INVENTORY_SIZE) return true;
+        for (GachaItem item : possibleItems) {
+            if (findStack(item) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a batch of items (e.g. a multi-pull) in one go.
+     * Nothing is added unless every item fits.
+     */
+    public void addItems(GachaItem[] items) throws InventoryFullException {
+        HashSet<ItemDefinition> newSlots = new HashSet<>();
+        for (GachaItem item : items) {
+            if (item != null && findStack(item) == null) newSlots.add(item.getDefinition());
+        }
+
+        if (stacks.size() + newSlots.size() > MAX_INVENTORY_SIZE) {
+            throw new InventoryFullException(String.format(
+                    "Not enough inventory space for %d new items! Current: %d /%d",
+                    newSlots.size(), stacks.size(), MAX_INVENTORY_SIZE));
+        }
+
+        for (GachaItem item : items) {
+            if (item != null) addItem(item);
+        }
+    }
+
+    // === HISTORY ===
+    // Only uses that changed something are worth an event: a tool losing a use or a puzzle solved
+    private void recordUse(GachaItem item, boolean success) {
+        if (success || item instanceof ToolItem) {
+            history.record(success ? PlayerHistory.ITEM_SOLVED : PlayerHistory.ITEM_USED,
+                    item.getDefinition(), usesOf(item));
+        }
+    }
+
+    private static int usesOf(GachaItem item) {
+        return item instanceof ToolItem ? ((ToolItem) item).getUsesRemaining() : 0;
+    }
+
+    // Replay of PlayerHistory events; these repeat the effect of the recorded call without using a puzzle
+    void replayItemAdded(ItemDefinition definition, int uses) {
+        GachaItem item = definition.newItem(uses);
+        if (item == null) return;
+        stackItem(item);
+        if (item instanceof ToolItem && "time_component".equals(((ToolItem) item).getToolType())) {
+            collectTimeMachinePart();
+        }
+    }
+
+    void replayItemUsed(ItemDefinition definition, int usesAfter, boolean success) {
+        ItemStack stack = stackByDefinition.get(definition);
+        if (stack == null) return;
+        if (stack.getHead() instanceof ToolItem) {
+            ((ToolItem) stack.getHead()).setUsesRemaining(usesAfter);
+            toolUsed(stack.getHead());
+        }
+        if (success) puzzlesSolved++;
+    }
+
+    void replayItemRemoved(ItemDefinition definition, int uses) {
+        ItemStack stack = stackByDefinition.get(definition);
+        if (stack == null) return;
+        GachaItem item = stack.getHead();
+        if (item instanceof ToolItem && ((ToolItem) item).getUsesRemaining() != uses) {
+            item = new ToolItem(definition, uses); // a spare copy, the stack finds it by its uses
+        }
+        unstackItem(item);
+        if (definition.getKind() == ItemDefinition.Kind.TOOL && "time_component".equals(definition.getDetail())) {
+            timeMachinePartsCollected = countTimeMachineParts();
+        }
+    }
+
+    // Run after every recorded event, survives loading a save into this player
+    public void setHistoryListener(Runnable listener) {
+        this.historyListener = listener;
+        history.setOnRecord(listener);
+    }
+
+    // Which puzzle was solved, so replaying the history after a crash does not pay it out again
+    public void recordPuzzleSolved(int roomNumber, int puzzleIndex) {
+        history.record(PlayerHistory.PUZZLE_SOLVED, roomNumber << 16 | puzzleIndex);
+    }
+
+    public PlayerHistory getHistory() {
+        return history;
+    }
+
     public boolean hasRequiredItem(String requiredToolType) {
         if (requiredToolType == null) return true;
 
-        for (GachaItem item : inventory) {
+        return (heldCapabilities & Capability.requirement(requiredToolType)) != 0;
+    }
+
+    // === INVENTORY INDEXES ===
+    /**
+     * Recomputes every index from the stacks. Only needed when the stacks were
+     * replaced wholesale (constructor, deserialization, state copies).
+     */
+    public void rebuildInventoryIndex() {
+        rarityCounts = new int[RARITIES.length];
+        itemTypeCounts = new int[ITEM_TYPES.length];
+        stackByDefinition = new HashMap<>();
+        toolsByType = new HashMap<>();
+        capabilityCounts = new int[Long.SIZE];
+        heldCapabilities = 0L;
+        for (ItemStack stack : stacks) {
+            stackByDefinition.put(stack.getDefinition(), stack);
+            if (stack.getHead() instanceof ToolItem) {
+                toolsByType.computeIfAbsent(toolType(stack.getHead()), type -> new ToolSlot()).stacks.add(stack);
+            }
+            for (int i = 0; i < stack.getCount(); i++) {
+                countCopy(stack.getHead(), 1);
+            }
+        }
+        for (String toolType : toolsByType.keySet()) {
+            refreshToolSlot(toolType);
+        }
+        slotIndex = new InventoryIndex();
+        slotIndex.rebuild(stacks);
+    }
+
+    private ItemStack findStack(GachaItem item) {
+        return item == null ? null : stackByDefinition.get(item.getDefinition());
+    }
+
+    private void stackItem(GachaItem item) {
+        ItemStack stack = findStack(item);
+        if (stack == null) {
+            stack = new ItemStack(item);
+            stacks.add(stack);
+            stackByDefinition.put(item.getDefinition(), stack);
             if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
-                if (tool.getToolType().equals(requiredToolType) && tool.getUsesRemaining() > 0) {
-                    return true;
-                }
+                toolsByType.computeIfAbsent(toolType(item), type -> new ToolSlot()).stacks.add(stack);
             }
-            if (item instanceof KeyItem) {
-                KeyItem key = (KeyItem) item;
-                if (key.getKeyColor().equals(requiredToolType) || key.isMasterKey()) {
-                    return true;
-                }
+            slotIndex.add(stacks.size() - 1, stack);
+        } else {
+            stack.add(item);
+            slotIndex.updateUsable(stack);
+        }
+        countCopy(item, 1);
+        if (item instanceof ToolItem) refreshToolSlot(toolType(item));
+    }
+
+    // Takes one copy of the item out of its stack, dropping the stack when it empties
+    private void unstackItem(GachaItem item) {
+        ItemStack stack = findStack(item);
+        if (stack == null) return;
+
+        if (!stack.removeOne(item)) {
+            stacks.remove(stack);
+            stackByDefinition.remove(stack.getDefinition());
+            if (item instanceof ToolItem) {
+                ToolSlot slot = toolsByType.get(toolType(item));
+                if (slot != null) slot.stacks.remove(stack);
+            }
+            slotIndex.rebuild(stacks);
+        } else {
+            slotIndex.updateUsable(stack);
+        }
+        countCopy(item, -1);
+        if (item instanceof ToolItem) refreshToolSlot(toolType(item));
+    }
+
+    private void countCopy(GachaItem item, int delta) {
+        rarityCounts[item.getRarity().ordinal()] += delta;
+        itemTypeCounts[item.getItemType().ordinal()] += delta;
+
+        // Keys never wear out, every copy counts; tools are counted per type in refreshToolSlot
+        if (item instanceof KeyItem) {
+            long bits = item.getCapabilities();
+            while (bits != 0) {
+                long bit = Long.lowestOneBit(bits);
+                setCapabilityCount(bit, capabilityCounts[Capability.indexOf(bit)] + delta);
+                bits &= ~bit;
             }
         }
-        return false;
+    }
+
+    private void setCapabilityCount(long bit, int count) {
+        capabilityCounts[Capability.indexOf(bit)] = count;
+        if (count > 0) {
+            heldCapabilities |= bit;
+        } else {
+            heldCapabilities &= ~bit;
+        }
+    }
+
+    // Tool counts per type come from the few stacks of that type, not from every copy
+    private void refreshToolSlot(String toolType) {
+        ToolSlot slot = toolsByType.get(toolType);
+        if (slot == null) return;
+        if (slot.stacks.isEmpty()) {
+            toolsByType.remove(toolType);
+            setCapabilityCount(Capability.ofTool(toolType), 0); // held tools' bits already exist
+            return;
+        }
+
+        slot.copies = 0;
+        slot.usable = 0;
+        for (ItemStack stack : slot.stacks) {
+            slot.copies += stack.getCount();
+            slot.usable += stack.getUsableCount();
+        }
+        setCapabilityCount(Capability.ofTool(toolType), slot.usable);
+    }
+
+    private static String toolType(GachaItem item) {
+        return ((ToolItem) item).getToolType();
+    }
+
+    // Called after item.use(): a tool that just ran out is swapped for a fresh copy from its stack
+    private void toolUsed(GachaItem item) {
+        if (!(item instanceof ToolItem)) return;
+
+        ItemStack stack = findStack(item);
+        if (stack != null) {
+            stack.rotateIfBroken();
+            slotIndex.updateUsable(stack);
+        }
+        refreshToolSlot(toolType(item));
     }
 
     // === INVENTORY UTILITIES ===
     public String getInventorySummary() {
-        if (inventory.isEmpty()) {
+        if (stacks.isEmpty()) {
             return "🎒 Your inventory is empty.";
         }
 
         StringBuilder summary = new StringBuilder();
-        summary.append("🎒 INVENTORY (").append(inventory.size())
+        summary.append("🎒 INVENTORY (").append(stacks.size())
                 .append("/").append(MAX_INVENTORY_SIZE).append(")\n");
 
-        // Count items by type
-        Map<String, Integer> typeCounts = new HashMap<>();
-        Map<Rarity, Integer> rarityCounts = new HashMap<>();
-
-        for (GachaItem item : inventory) {
-            // By item type
-            String itemType = item.getItemType().toString();
-            typeCounts.put(itemType, typeCounts.getOrDefault(itemType, 0) + 1);
-
-            // By rarity
-            Rarity rarity = item.getRarity();
-            rarityCounts.put(rarity, rarityCounts.getOrDefault(rarity, 0) + 1);
-        }
-
         // Add type summary
         summary.append("Types: ");
-        typeCounts.forEach((type, count) -> {
-            summary.append(count).append(" ").append(type).append(" ");
-        });
+        for (ItemType type : ITEM_TYPES) {
+            int count = itemTypeCounts[type.ordinal()];
+            if (count > 0) summary.append(count).append(" ").append(type).append(" ");
+        }
 
         summary.append("\nRarity: ");
-        rarityCounts.forEach((rarity, count) -> {
-            summary.append(count).append(" ").append(rarity).append(" ");
-        });
+        for (Rarity rarity : RARITIES) {
+            int count = rarityCounts[rarity.ordinal()];
+            if (count > 0) summary.append(count).append(" ").append(rarity).append(" ");
+        }
 
         return summary.toString();
     }
@@ -261,58 +595,41 @@ public class Player implements  Serializable{
     public List<GachaItem> findHelpfulItems(Puzzle puzzle) {
         List<GachaItem> helpful = new ArrayList<>();
 
-        for (GachaItem item : inventory) {
-            if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
+        // The puzzle says what helps (its tool, time components, keys); nothing held matches → done
+        if ((heldCapabilities & puzzle.getHelpfulMask()) == 0) return helpful;
 
-                // Check if tool has uses remaining
-                if (tool.getUsesRemaining() <= 0) continue;
-
-                // Determine if tool might help based on puzzle type
-                if (puzzle instanceof CodePuzzle && "decoder".equals(tool.getToolType())) {
-                    helpful.add(item);
-                } else if (puzzle instanceof RiddlePuzzle && "hintbook".equals(tool.getToolType())) {
-                    helpful.add(item);
-                } else if (puzzle instanceof LockPuzzle && "lockpick".equals(tool.getToolType())) {
-                    helpful.add(item);
-                } else if ("time_component".equals(tool.getToolType())) {
-                    // Time components might provide general hints
-                    helpful.add(item);
-                }
-            } else if (item instanceof KeyItem) {
-                // Key items might unlock certain puzzles
-                helpful.add(item);
-            }
+        for (GachaItem item : query().helpfulFor(puzzle).usable().items()) {
+            helpful.add(item);
         }
-
         return helpful;
     }
 
+    // === INVENTORY QUERIES ===
+    // Indexed filtering over the stacks, see InventoryQuery
+    public InventoryQuery query() {
+        return new InventoryQuery(stacks, slotIndex);
+    }
+
     public Map<String, Object> getLoadoutSummary() {
         Map<String, Object> loadout = new HashMap<>();
 
-        // Item counts by type
+        // Item counts by type, straight from the indexes
         Map<String, Integer> typeCounts = new HashMap<>();
-        Map<Rarity, Integer> rarityCounts = new HashMap<>();
+        Map<Rarity, Integer> rarityCounts = new EnumMap<>(Rarity.class);
         Map<String, Integer> toolTypeCounts = new HashMap<>();
 
-        for (GachaItem item : inventory) {
-            // By item type
-            String itemType = item.getItemType().toString();
-            typeCounts.put(itemType, typeCounts.getOrDefault(itemType, 0) + 1);
-
-            // By rarity
-            rarityCounts.put(item.getRarity(), rarityCounts.getOrDefault(item.getRarity(), 0) + 1);
-
-            // By tool type (if applicable)
-            if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
-                toolTypeCounts.put(tool.getToolType(),
-                        toolTypeCounts.getOrDefault(tool.getToolType(), 0) + 1);
-            }
+        for (ItemType type : ITEM_TYPES) {
+            int count = itemTypeCounts[type.ordinal()];
+            if (count > 0) typeCounts.put(type.toString(), count);
+        }
+        for (Rarity rarity : RARITIES) {
+            int count = this.rarityCounts[rarity.ordinal()];
+            if (count > 0) rarityCounts.put(rarity, count);
         }
+        toolsByType.forEach((type, slot) -> toolTypeCounts.put(type, slot.copies));
 
-        loadout.put("totalItems", inventory.size());
+        loadout.put("totalItems", getTotalItemCount());
+        loadout.put("slotsUsed", stacks.size());
         loadout.put("maxCapacity", MAX_INVENTORY_SIZE);
         loadout.put("itemTypes", typeCounts);
         loadout.put("rarities", rarityCounts);
@@ -323,7 +640,7 @@ public class Player implements  Serializable{
     }
 
     public String getInventoryStatus() {
-        int current = inventory.size();
+        int current = stacks.size();
         int max = MAX_INVENTORY_SIZE;
         double percentage = (double) current / max * 100;
 
@@ -338,108 +655,105 @@ public class Player implements  Serializable{
 
     // === UTILITY METHODS ===
     public boolean hasItemType(String toolType) {
-        for (GachaItem item : inventory) {
-            if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
-                if (tool.getToolType().equals(toolType) && tool.getUsesRemaining() > 0) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        ToolSlot slot = toolsByType.get(toolType);
+        return slot != null && slot.usable > 0;
     }
 
+    // The front copy of each stack of this tool type
     public List<GachaItem> getItemsByType(String toolType) {
-        List<GachaItem> result = new ArrayList<>();
-        for (GachaItem item : inventory) {
-            if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
-                if (tool.getToolType().equals(toolType)) {
-                    result.add(item);
-                }
-            }
-        }
+        ToolSlot slot = toolsByType.get(toolType);
+        if (slot == null) return Collections.emptyList();
+
+        List<GachaItem> result = new ArrayList<>(slot.stacks.size());
+        for (ItemStack stack : slot.stacks) result.add(stack.getHead());
         return result;
     }
 
+    public int countItems(Rarity rarity) {
+        return rarityCounts[rarity.ordinal()];
+    }
+
+    public int countItems(ItemType itemType) {
+        return itemTypeCounts[itemType.ordinal()];
+    }
+
     public String getProgressSummary() {
         return String.format(
                 "Player: %s | Coins: %d | Puzzles Solved: %d | Time Parts: %d/6",
-                name, coins, puzzlesSolved, timeMachinePartsCollected
+                name, ledger.getCoins(), puzzlesSolved, timeMachinePartsCollected
         );
     }
 
     public int countTimeMachineParts() {
-        int count = 0;
-        for (GachaItem item : inventory) {
-            if (item instanceof ToolItem) {
-                ToolItem tool = (ToolItem) item;
-                if ("time_component".equals(tool.getToolType())) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        ToolSlot slot = toolsByType.get("time_component");
+        return slot == null ? 0 : slot.copies;
     }
 
     // === COIN MANAGEMENT ===
+    // All coin changes go through the ledger, see CoinLedger
+    // Every change is also recorded in the history, see PlayerHistory
     public void setCoins(int coins) {
-        this.coins = coins;
+        ledger.setCoins(coins);
+        history.record(PlayerHistory.SET_COINS, coins);
     }
 
     public void earnCoins(int amount) {
-        this.coins += amount;
-        recordCoinsEarned(amount);
+        ledger.credit(amount);
+        history.record(PlayerHistory.CREDIT, amount);
     }
 
     public boolean spendCoins(int amount) {
-        if (this.coins >= amount) {
-            this.coins -= amount;
-            recordCoinsSpent(amount);
-            return true;
-        }
-        return false;
+        if (!ledger.tryDebit(amount)) return false;
+        history.record(PlayerHistory.DEBIT, amount);
+        return true;
     }
 
-    public void restoreFromSavedPlayer(Player savedPlayer) {
-        // Since name is final, we need to restore it through reflection
-        try {
-            // Use reflection to copy the name field
-            java.lang.reflect.Field nameField = Player.class.getDeclaredField("name");
-            nameField.setAccessible(true);
-            nameField.set(this, savedPlayer.name);
-
-            // Copy all other fields that might not have setters
-            java.lang.reflect.Field[] fields = Player.class.getDeclaredFields();
-
-            for (java.lang.reflect.Field field : fields) {
-                field.setAccessible(true);
-
-                // Skip final fields that we've already handled
-                if (field.getName().equals("name")) continue;
+    // Gives back coins from an earlier spendCoins, e.g. when pulled items did not fit
+    public void refundCoins(int amount) {
+        ledger.refund(amount);
+        history.record(PlayerHistory.REFUND, amount);
+    }
 
-                // Skip static fields
-                if (java.lang.reflect.Modifier.isStatic(field.getModifiers())) continue;
+    // Coin changes that only reach the history once committed, see CoinLedger.Transaction
+    public CoinLedger.Transaction beginCoins() {
+        return ledger.begin((debit, amount) ->
+                history.record(debit ? PlayerHistory.DEBIT : PlayerHistory.CREDIT, amount));
+    }
 
-                // Copy the value
-                Object value = field.get(savedPlayer);
-                field.set(this, value);
-            }
+    public CoinLedger getCoinLedger() {
+        return ledger;
+    }
 
-            System.out.println("✅ Player restored from save: " + this.name);
+    public void restoreFromSavedPlayer(Player savedPlayer) {
+        copyStateFrom(savedPlayer);
+        System.out.println("✅ Player restored from save: " + this.name);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Failed to restore player: " + e.getMessage());
-        }
+    /**
+     * Makes this player an exact copy of {@code source} (used when a save is
+     * loaded into the running game). Keep this in step with the field list above.
+     */
+    public void copyStateFrom(Player source) {
+        this.name = source.name;
+        CoinLedger.Balance balance = source.ledger.getBalance();
+        this.ledger = new CoinLedger(balance.getCoins(), balance.getEarned(), balance.getSpent());
+        this.stacks = new ArrayList<>(source.stacks);
+        this.totalPulls = source.totalPulls;
+        this.puzzlesSolved = source.puzzlesSolved;
+        this.roomsCompleted = source.roomsCompleted;
+        this.timeMachinePartsCollected = source.timeMachinePartsCollected;
+        this.history = new PlayerHistory(); // a new snapshot starts a new history
+        history.setOnRecord(historyListener);
+        rebuildInventoryIndex();
     }
 
     // === PROGRESS TRACKING ===
     public void recordCoinsEarned(int amount) {
-        this.totalCoinsEarned += amount;
+        ledger.addToTotals(amount, 0);
     }
 
     public void recordCoinsSpent(int amount) {
-        this.totalCoinsSpent += amount;
+        ledger.addToTotals(0, amount);
     }
 
     public void incrementRoomsCompleted() {
@@ -447,7 +761,12 @@ public class Player implements  Serializable{
     }
 
     public void incrementTotalPulls() {
-        this.totalPulls++;
+        TOTAL_PULLS.incrementAndGet(this);
+    }
+
+    // Undoes pulls that were rolled back, leaving any made meanwhile counted
+    public void removeTotalPulls(int count) {
+        TOTAL_PULLS.addAndGet(this, -count);
     }
 
     public void collectTimeMachinePart() {
@@ -468,11 +787,11 @@ public class Player implements  Serializable{
     }
 
     public void setTotalCoinsEarned(int totalCoinsEarned) {
-        this.totalCoinsEarned = totalCoinsEarned;
+        ledger.setEarned(totalCoinsEarned);
     }
 
     public void setTotalCoinsSpent(int totalCoinsSpent) {
-        this.totalCoinsSpent = totalCoinsSpent;
+        ledger.setSpent(totalCoinsSpent);
     }
 
     public void setTimeMachinePartsCollected(int count) {
@@ -481,16 +800,34 @@ public class Player implements  Serializable{
 
     // === GETTER METHODS ===
     public String getName() { return name; }
-    public int getCoinBalance() { return coins; }
+    public int getCoinBalance() { return ledger.getCoins(); }
     public int getTotalPulls() { return totalPulls; }
     public int getPuzzlesSolved() { return puzzlesSolved; }
-    public int getTotalCoinsEarned() { return totalCoinsEarned; }
-    public int getTotalCoinsSpent() { return totalCoinsSpent; }
+    public int getTotalCoinsEarned() { return ledger.getBalance().getEarned(); }
+    public int getTotalCoinsSpent() { return ledger.getBalance().getSpent(); }
     public int getRoomsCompleted() { return roomsCompleted; }
     public int getMaxInventorySize() { return MAX_INVENTORY_SIZE; }
-    public int getCurrentInventorySize() { return inventory.size(); }
+    public int getCurrentInventorySize() { return stacks.size(); } // slots, not copies
+    public int getTotalItemCount() {
+        int total = 0;
+        for (int count : itemTypeCounts) total += count;
+        return total;
+    }
     public int getTimeMachinePartsCollected() { return timeMachinePartsCollected; }
+    // One item per slot: the front copy of each stack
     public List<GachaItem> getInventory() {
-        return new ArrayList<>(inventory);
+        List<GachaItem> items = new ArrayList<>(stacks.size());
+        for (ItemStack stack : stacks) items.add(stack.getHead());
+        return items;
+    }
+
+    public List<ItemStack> getStacks() {
+        return Collections.unmodifiableList(new ArrayList<>(stacks));
+    }
+
+    // How many copies of this item are held
+    public int getItemCount(GachaItem item) {
+        ItemStack stack = findStack(item);
+        return stack == null ? 0 : stack.getCount();
     }
 }
\ No newline at end of file
@@ -0,0 +1,255 @@
+package model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything that happened to a player's coins, items and puzzles since the
+ * last full save, as a list of events packed into longs. The game file is a
+ * snapshot; saving the events on top of it is much cheaper than rewriting the
+ * snapshot. A full save does not throw the events away: FileManager appends
+ * the finished file to an archive, so together they are an append-only record
+ * of the whole game for coin questions.
+ *
+ * Event layout: bits 0-7 type, bits 8-31 item definition index, bits 32-63 value
+ * (coin amount or tool uses). Definitions are numbered in order of first use and
+ * written into the stream as DEFINE records before the first event that needs them.
+ */
+public class PlayerHistory {
+    public static final int CREDIT = 1;        // value = coins earned
+    public static final int DEBIT = 2;         // value = coins spent
+    public static final int REFUND = 3;        // value = coins given back
+    public static final int SET_COINS = 4;     // value = new balance
+    public static final int ITEM_ADDED = 5;    // value = uses of the copy
+    public static final int ITEM_USED = 6;     // value = uses left, use did not help
+    public static final int ITEM_SOLVED = 7;   // value = uses left, use solved the puzzle
+    public static final int ITEM_BROKE = 8;    // worn out tool left the inventory
+    public static final int ITEM_REMOVED = 9;  // value = uses of the discarded copy
+    public static final int PUZZLE_SOLVED = 10; // value = room number << 16 | puzzle index in the room
+    private static final int DEFINE = 15;
+
+    private long[] events = new long[64];
+    private int size;
+    private int persisted; // events[0..persisted) are already in the stream
+    private long snapshotId; // the full save the stream continues, 0 = none yet (e.g. a new game)
+
+    private final List<ItemDefinition> definitions = new ArrayList<>();
+    private final Map<ItemDefinition, Integer> definitionIds = new HashMap<>();
+    private int persistedDefinitions;
+
+    private boolean replaying; // replay calls the normal Player methods, which must not record again
+    private volatile Runnable onRecord; // e.g. schedules a write, see GameManager.saveHistory
+
+    // Tells the replay which puzzle was solved; rooms are not the player's to change
+    public interface PuzzleReplay {
+        void puzzleSolved(int roomNumber, int puzzleIndex);
+    }
+
+    // === RECORDING ===
+    void record(int type, int value) {
+        record(type, null, value);
+    }
+
+    void record(int type, ItemDefinition definition, int value) {
+        synchronized (this) {
+            if (replaying) return;
+            if (size == events.length) events = Arrays.copyOf(events, size * 2);
+            events[size++] = encode(type, definition == null ? 0 : idOf(definition), value);
+        }
+        Runnable listener = onRecord;
+        if (listener != null) listener.run();
+    }
+
+    void setOnRecord(Runnable onRecord) {
+        this.onRecord = onRecord;
+    }
+
+    private int idOf(ItemDefinition definition) {
+        Integer id = definitionIds.get(definition);
+        if (id == null) {
+            id = definitions.size();
+            definitions.add(definition);
+            definitionIds.put(definition, id);
+        }
+        return id;
+    }
+
+    static long encode(int type, int definitionId, int value) {
+        return (type & 0xFFL) | ((definitionId & 0xFFFFFFL) << 8) | ((long) value << 32);
+    }
+
+    static int typeOf(long event) { return (int) (event & 0xFF); }
+    static int definitionOf(long event) { return (int) ((event >>> 8) & 0xFFFFFF); }
+    static int valueOf(long event) { return (int) (event >>> 32); }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int unsavedCount() {
+        return size - persisted;
+    }
+
+    public synchronized long getSnapshotId() {
+        return snapshotId;
+    }
+
+    // === PERSISTENCE ===
+    /**
+     * Writes the events (and new definitions) not yet written. The stream is an
+     * append-only file that belongs to the snapshot it was started after.
+     */
+    public synchronized void writeNewEvents(DataOutputStream out) throws IOException {
+        for (int i = persisted; i < size; i++) {
+            long event = events[i];
+            int type = typeOf(event);
+            if (type >= ITEM_ADDED && type <= ITEM_REMOVED) {
+                writeDefinitionsUpTo(out, definitionOf(event));
+            }
+            out.writeLong(event);
+        }
+        out.flush();
+        persisted = size;
+    }
+
+    private void writeDefinitionsUpTo(DataOutputStream out, int id) throws IOException {
+        while (persistedDefinitions <= id) {
+            ItemDefinition definition = definitions.get(persistedDefinitions);
+            out.writeLong(encode(DEFINE, persistedDefinitions, 0));
+            out.writeUTF(definition.getKind().name());
+            out.writeUTF(definition.getName());
+            out.writeUTF(definition.getDescription());
+            out.writeUTF(definition.getRarity().name());
+            out.writeUTF(definition.getItemType().name());
+            out.writeBoolean(definition.getDetail() != null);
+            if (definition.getDetail() != null) out.writeUTF(definition.getDetail());
+            out.writeInt(definition.getValue());
+            persistedDefinitions++;
+        }
+    }
+
+    /**
+     * Reads an event stream written by writeNewEvents and applies it to the
+     * player, who must be in the state of the snapshot the stream belongs to.
+     * Afterwards this history continues the same stream. Returns the event count.
+     */
+    public synchronized int readAndReplay(DataInputStream in, Player player, long snapshotId,
+                                          PuzzleReplay puzzles) throws IOException {
+        this.snapshotId = snapshotId;
+        int applied = 0;
+        replaying = true;
+        try {
+            while (true) {
+                long event;
+                try {
+                    event = in.readLong();
+                } catch (EOFException end) {
+                    break;
+                }
+
+                if (typeOf(event) == DEFINE) {
+                    ItemDefinition definition = readDefinition(in);
+                    definitions.add(definition);
+                    definitionIds.put(definition, definitions.size() - 1);
+                    persistedDefinitions = definitions.size();
+                    continue;
+                }
+                apply(event, player, puzzles);
+                applied++;
+            }
+        } finally {
+            replaying = false;
+        }
+        return applied;
+    }
+
+    private static ItemDefinition readDefinition(DataInputStream in) throws IOException {
+        ItemDefinition.Kind kind = ItemDefinition.Kind.valueOf(in.readUTF());
+        String name = in.readUTF();
+        String description = in.readUTF();
+        Rarity rarity = Rarity.valueOf(in.readUTF());
+        ItemType itemType = ItemType.valueOf(in.readUTF());
+        String detail = in.readBoolean() ? in.readUTF() : null;
+        int value = in.readInt();
+
+        switch (kind) {
+            case TOOL: return ItemDefinition.tool(name, description, rarity, detail, value);
+            case KEY: return ItemDefinition.key(name, description, rarity, detail, value != 0);
+            case JUNK: return ItemDefinition.junk(name, description, rarity, detail);
+            default: return ItemDefinition.plain(name, description, rarity, itemType);
+        }
+    }
+
+    private void apply(long event, Player player, PuzzleReplay puzzles) throws IOException {
+        int value = valueOf(event);
+        int type = typeOf(event);
+        ItemDefinition definition = null;
+        if (type >= ITEM_ADDED && type <= ITEM_REMOVED) {
+            int id = definitionOf(event);
+            if (id >= definitions.size()) {
+                throw new IOException("History refers to unknown item #" + id);
+            }
+            definition = definitions.get(id);
+        }
+
+        switch (type) {
+            case CREDIT: player.earnCoins(value); break;
+            case DEBIT: player.spendCoins(value); break;
+            case REFUND: player.refundCoins(value); break;
+            case SET_COINS: player.setCoins(value); break;
+            case ITEM_ADDED: player.replayItemAdded(definition, value); break;
+            case ITEM_USED: player.replayItemUsed(definition, value, false); break;
+            case ITEM_SOLVED: player.replayItemUsed(definition, value, true); break;
+            case ITEM_BROKE: player.replayItemRemoved(definition, 0); break;
+            case ITEM_REMOVED: player.replayItemRemoved(definition, value); break;
+            case PUZZLE_SOLVED: puzzles.puzzleSolved(value >>> 16, value & 0xFFFF); break;
+            default: throw new IOException("Unknown history event type " + type);
+        }
+    }
+
+    // Called after a full save (or a load without events): the snapshot already contains everything
+    public synchronized void clear(long snapshotId) {
+        this.snapshotId = snapshotId;
+        size = 0;
+        persisted = 0;
+        definitions.clear();
+        definitionIds.clear();
+        persistedDefinitions = 0;
+    }
+
+    // === AUDIT TRAIL ===
+    public synchronized List<String> describe() {
+        List<String> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(describe(events[i]));
+        }
+        return lines;
+    }
+
+    private String describe(long event) {
+        int value = valueOf(event);
+        int type = typeOf(event);
+        String item = type >= ITEM_ADDED && type <= ITEM_REMOVED
+                ? definitions.get(definitionOf(event)).getName() : "";
+        switch (type) {
+            case CREDIT: return "+" + value + " coins";
+            case DEBIT: return "-" + value + " coins";
+            case REFUND: return "+" + value + " coins (refund)";
+            case SET_COINS: return "coins set to " + value;
+            case ITEM_ADDED: return "got " + item;
+            case ITEM_USED: return "used " + item + " (" + value + " uses left)";
+            case ITEM_SOLVED: return "solved a puzzle with " + item + " (" + value + " uses left)";
+            case ITEM_BROKE: return item + " broke";
+            case ITEM_REMOVED: return "discarded " + item;
+            case PUZZLE_SOLVED: return "solved puzzle " + ((value & 0xFFFF) + 1) + " in room " + (value >>> 16);
+            default: return "unknown event " + type;
+        }
+    }
+}
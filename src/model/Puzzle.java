@@ -1,7 +1,5 @@
 package model;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.io.Serializable;
 
 public abstract class Puzzle implements Serializable {
@@ -15,6 +13,11 @@ public abstract class Puzzle implements Serializable {
     protected int attempts;
     protected long startTime;
     protected long solveTime;
+    private String puzzleId; // key into HintRegistry, set where the puzzle is built; null in older saves
+    private String timingKey; // PuzzleTimings key of generated puzzles, null = the description
+    private transient long shownAtNanos;      // System.nanoTime when first shown this session, 0 = not yet
+    private transient long lastAttemptNanos;  // System.nanoTime of the latest attempt, 0 = none yet
+    private transient Runnable onSolved;      // set by GameManager, records the solve in the player's history
 
     public Puzzle(String description, int coinReward, int difficultyLevel, boolean requiresGachaItem){
         this.description = description;
@@ -42,34 +45,132 @@ public abstract class Puzzle implements Serializable {
 
     public abstract boolean attemptSolve(GachaItem item);
 
+    // === CAPABILITY MASKS (see Capability) ===
+    // Tools that do something when used here. Blueprints and time components work anywhere.
+    public long getToolMask() {
+        return Capability.BLUEPRINT | Capability.TIME_COMPONENT;
+    }
+
+    // Items worth offering to the player for this puzzle
+    public long getHelpfulMask() {
+        return Capability.KEY | Capability.TIME_COMPONENT;
+    }
+
+    // Keys that solve this puzzle outright
+    public long getUnlockMask() {
+        return 0L;
+    }
+
     public String getHint() {
         return "Think carefully about what you need to solve this";
     }
 
+    // Which hints tools give here; puzzles without one (older saves) get it worked out from their text once
+    public String getPuzzleId() {
+        if (puzzleId == null) puzzleId = HintRegistry.idFor(this);
+        return puzzleId;
+    }
+
+    void setPuzzleId(String puzzleId) {
+        this.puzzleId = puzzleId;
+    }
+
+    // Which PuzzleTimings histogram this puzzle's times go to
+    public String getTimingKey() {
+        return timingKey != null ? timingKey : description;
+    }
+
+    void setTimingKey(String timingKey) {
+        this.timingKey = timingKey;
+    }
+
     // === ENHANCED PROGRESS TRACKING ===
+    // Starts the clock the first time the player sees the puzzle; times go to PuzzleTimings
+    public void markShown() {
+        if (shownAtNanos != 0 || isSolved) return;
+        shownAtNanos = System.nanoTime();
+        startTime = System.currentTimeMillis();
+    }
+
     public void recordAttempt() {
         this.attempts++;
+        timeAttempt(System.nanoTime());
     }
 
     public void markSolved() {
+        boolean newlySolved = !isSolved;
         this.isSolved = true;
-        this.solveTime = System.currentTimeMillis() - startTime;
+        if (shownAtNanos == 0) {
+            // Never shown (e.g. solved from the inventory), no timing worth keeping
+            this.solveTime = System.currentTimeMillis() - startTime;
+        } else {
+            long now = System.nanoTime();
+            timeAttempt(now); // the solving attempt
+            this.solveTime = (now - shownAtNanos) / 1_000_000;
+            PuzzleTimings.global().record(this, PuzzleTimings.Metric.SOLVE, now - shownAtNanos);
+        }
+
+        Runnable listener = onSolved;
+        if (newlySolved && listener != null) listener.run();
+    }
+
+    void setOnSolved(Runnable onSolved) {
+        this.onSolved = onSolved;
+    }
+
+    private void timeAttempt(long now) {
+        if (shownAtNanos == 0) return;
+        if (lastAttemptNanos == 0) {
+            PuzzleTimings.global().record(this, PuzzleTimings.Metric.FIRST_ATTEMPT, now - shownAtNanos);
+        } else {
+            PuzzleTimings.global().record(this, PuzzleTimings.Metric.BETWEEN_ATTEMPTS, now - lastAttemptNanos);
+        }
+        lastAttemptNanos = now;
     }
 
-    public Map<String, Object> getPuzzleStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("attempts", attempts);
-        stats.put("solved", isSolved);
-        stats.put("difficulty", difficultyLevel);
-        stats.put("reward", coinReward);
+    public int getAttempts() { return attempts; }
+    public long getSolveTimeMs() { return solveTime; }
+
+    // This puzzle's own numbers; timing histograms across sessions are in PuzzleTimings.snapshot()
+    public Stats getPuzzleStats() {
+        return new Stats(attempts, isSolved, difficultyLevel, coinReward, isSolved ? solveTime : 0);
+    }
 
-        if (isSolved) {
-            stats.put("solveTimeMs", solveTime);
-            stats.put("solveTimeSeconds", solveTime / 1000);
-            stats.put("efficiency", attempts == 0 ? 0 : (double) solveTime / attempts);
+    /**
+     * Immutable copy of a puzzle's counters, plain fields instead of a map of boxed values.
+     */
+    public static final class Stats {
+        private final int attempts;
+        private final boolean solved;
+        private final int difficulty;
+        private final int reward;
+        private final long solveTimeMs; // 0 until solved
+
+        Stats(int attempts, boolean solved, int difficulty, int reward, long solveTimeMs) {
+            this.attempts = attempts;
+            this.solved = solved;
+            this.difficulty = difficulty;
+            this.reward = reward;
+            this.solveTimeMs = solveTimeMs;
         }
 
-        return stats;
+        public int getAttempts() { return attempts; }
+        public boolean isSolved() { return solved; }
+        public int getDifficulty() { return difficulty; }
+        public int getReward() { return reward; }
+        public long getSolveTimeMs() { return solveTimeMs; }
+        public long getSolveTimeSeconds() { return solveTimeMs / 1000; }
+
+        // Milliseconds per attempt, 0 if unsolved
+        public double getEfficiency() {
+            return attempts == 0 ? 0 : (double) solveTimeMs / attempts;
+        }
+
+        @Override
+        public String toString() {
+            return "attempts=" + attempts + " solved=" + solved + " difficulty=" + difficulty
+                    + " reward=" + reward + (solved ? " solveTimeMs=" + solveTimeMs : "");
+        }
     }
 
     public String getDifficultyStars() {
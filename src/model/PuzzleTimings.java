@@ -0,0 +1,267 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * How long players take on each puzzle, as log2 histograms that survive
+ * between sessions. Puzzles record three times with System.nanoTime: from
+ * first being shown to the first attempt, between attempts, and from being
+ * shown to solved. Read it through {@link #snapshot()} to find the puzzles
+ * players get stuck on. Puzzles are keyed by {@link Puzzle#getTimingKey()}:
+ * fixed puzzles by their text, generated rift puzzles by kind and depth, so
+ * the number of histograms stays bounded however many rifts are played.
+ */
+public class PuzzleTimings {
+    public static final String DEFAULT_FILE = "saves/puzzle_timings.dat";
+    private static final int FORMAT_VERSION = 1;
+
+    public enum Metric { FIRST_ATTEMPT, BETWEEN_ATTEMPTS, SOLVE }
+    private static final Metric[] METRICS = Metric.values();
+
+    // Bucket b counts times in [2^b, 2^(b+1)) nanoseconds; the last one holds everything from ~39 hours on
+    private static final int BUCKETS = 48;
+
+    private static volatile PuzzleTimings global;
+
+    // Timing key -> METRICS.length * BUCKETS counters
+    private final ConcurrentHashMap<String, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+    private final File file;
+
+    public PuzzleTimings(File file) {
+        this.file = file;
+    }
+
+    // Shared instance, loaded from DEFAULT_FILE the first time it is used
+    public static PuzzleTimings global() {
+        PuzzleTimings timings = global;
+        if (timings == null) {
+            synchronized (PuzzleTimings.class) {
+                if (global == null) {
+                    PuzzleTimings loaded = new PuzzleTimings(new File(DEFAULT_FILE));
+                    try {
+                        loaded.load();
+                    } catch (IOException e) {
+                        System.err.println("⚠️ Could not load puzzle timings, starting fresh: " + e.getMessage());
+                        loaded.histograms.clear();
+                    }
+                    global = loaded;
+                }
+                timings = global;
+            }
+        }
+        return timings;
+    }
+
+    // === RECORDING ===
+    void record(Puzzle puzzle, Metric metric, long nanos) {
+        AtomicLongArray counts = histograms.computeIfAbsent(puzzle.getTimingKey(),
+                key -> new AtomicLongArray(METRICS.length * BUCKETS));
+        counts.incrementAndGet(metric.ordinal() * BUCKETS + bucketFor(nanos));
+    }
+
+    private static int bucketFor(long nanos) {
+        if (nanos <= 1) return 0;
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    // === PERSISTENCE ===
+    /**
+     * Format: version, puzzle count, then per puzzle its timing key and, per
+     * metric, the number of non-empty buckets followed by (bucket, count) pairs.
+     * Written to a temporary file first and moved over the old one, so a crash
+     * mid-save leaves the previous file intact.
+     */
+    public void save() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory: " + parent);
+        }
+
+        // A puzzle seen for the first time during the save must not change the count already written
+        List<Map.Entry<String, AtomicLongArray>> entries = new ArrayList<>(histograms.entrySet());
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                writeEntries(out, entries);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath()); // only still there if writing failed
+        }
+    }
+
+    private static void writeEntries(DataOutputStream out, List<Map.Entry<String, AtomicLongArray>> entries)
+            throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, AtomicLongArray> entry : entries) {
+            out.writeUTF(entry.getKey());
+            AtomicLongArray counts = entry.getValue();
+            long[] metricCounts = new long[BUCKETS];
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                // Copy first: a bucket filled mid-write must not break the count of pairs
+                int used = 0;
+                for (int b = 0; b < BUCKETS; b++) {
+                    metricCounts[b] = counts.get(metric * BUCKETS + b);
+                    if (metricCounts[b] != 0) used++;
+                }
+                out.writeByte(used);
+                for (int b = 0; b < BUCKETS; b++) {
+                    if (metricCounts[b] == 0) continue;
+                    out.writeByte(b);
+                    out.writeLong(metricCounts[b]);
+                }
+            }
+        }
+    }
+
+    // Adds the saved counts to the ones in memory. Older files keyed every generated rift
+    // puzzle by its text, one histogram per rift; those are dropped.
+    public void load() throws IOException {
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown puzzle timings version " + version);
+            }
+            int puzzles = in.readInt();
+            for (int i = 0; i < puzzles; i++) {
+                String key = in.readUTF();
+                AtomicLongArray counts = key.startsWith(NexusGenerator.RIFT_TEXT_PREFIX)
+                        ? new AtomicLongArray(METRICS.length * BUCKETS) // read and thrown away
+                        : histograms.computeIfAbsent(key, k -> new AtomicLongArray(METRICS.length * BUCKETS));
+                for (int metric = 0; metric < METRICS.length; metric++) {
+                    int used = in.readUnsignedByte();
+                    for (int j = 0; j < used; j++) {
+                        int bucket = in.readUnsignedByte();
+                        long count = in.readLong();
+                        if (bucket >= BUCKETS) throw new IOException("Bad histogram bucket " + bucket);
+                        counts.addAndGet(metric * BUCKETS + bucket, count);
+                    }
+                }
+            }
+        }
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    // === SNAPSHOTS ===
+    public Snapshot snapshot() {
+        List<PuzzleStats> stats = new ArrayList<>(histograms.size());
+        for (Map.Entry<String, AtomicLongArray> entry : histograms.entrySet()) {
+            AtomicLongArray counts = entry.getValue();
+            long[] copy = new long[counts.length()];
+            for (int i = 0; i < copy.length; i++) copy[i] = counts.get(i);
+            stats.add(new PuzzleStats(entry.getKey(), copy));
+        }
+        return new Snapshot(stats);
+    }
+
+    /**
+     * Point-in-time copy of all puzzles' histograms.
+     */
+    public static class Snapshot {
+        private final List<PuzzleStats> puzzles;
+
+        Snapshot(List<PuzzleStats> puzzles) {
+            this.puzzles = Collections.unmodifiableList(puzzles);
+        }
+
+        public List<PuzzleStats> getPuzzles() { return puzzles; }
+
+        // See Puzzle.getTimingKey
+        public PuzzleStats get(String key) {
+            for (PuzzleStats stats : puzzles) {
+                if (stats.getKey().equals(key)) return stats;
+            }
+            return null;
+        }
+
+        // Puzzles with the highest median for the metric first, e.g. SOLVE or BETWEEN_ATTEMPTS
+        public List<PuzzleStats> slowest(Metric metric, int limit) {
+            List<PuzzleStats> sorted = new ArrayList<>();
+            for (PuzzleStats stats : puzzles) {
+                if (stats.getCount(metric) > 0) sorted.add(stats);
+            }
+            sorted.sort((a, b) -> Long.compare(b.getPercentileNanos(metric, 50), a.getPercentileNanos(metric, 50)));
+            return sorted.subList(0, Math.min(limit, sorted.size()));
+        }
+    }
+
+    /**
+     * One puzzle's histograms, one array for all metrics.
+     */
+    public static class PuzzleStats {
+        private final String key;
+        private final long[] buckets; // METRICS.length * BUCKETS
+
+        PuzzleStats(String key, long[] buckets) {
+            this.key = key;
+            this.buckets = buckets;
+        }
+
+        public String getKey() { return key; }
+
+        public long getCount(Metric metric) {
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) total += buckets[metric.ordinal() * BUCKETS + b];
+            return total;
+        }
+
+        /**
+         * Upper bound of the histogram bucket holding the given percentile (0-100).
+         */
+        public long getPercentileNanos(Metric metric, double percentile) {
+            long total = getCount(metric);
+            if (total == 0) return 0;
+
+            int base = metric.ordinal() * BUCKETS;
+            long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += buckets[base + b];
+                if (seen >= rank && seen > 0) return 1L << (b + 1);
+            }
+            return 1L << BUCKETS;
+        }
+
+        public long[] getHistogram(Metric metric) {
+            long[] histogram = new long[BUCKETS];
+            System.arraycopy(buckets, metric.ordinal() * BUCKETS, histogram, 0, BUCKETS);
+            return histogram;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s | first try p50 %.1fs (%d) | between p50 %.1fs (%d) | solve p50 %.1fs p90 %.1fs (%d)",
+                    key.length() > 40 ? key.substring(0, 37) + "..." : key,
+                    getPercentileNanos(Metric.FIRST_ATTEMPT, 50) / 1e9, getCount(Metric.FIRST_ATTEMPT),
+                    getPercentileNanos(Metric.BETWEEN_ATTEMPTS, 50) / 1e9, getCount(Metric.BETWEEN_ATTEMPTS),
+                    getPercentileNanos(Metric.SOLVE, 50) / 1e9, getPercentileNanos(Metric.SOLVE, 90) / 1e9,
+                    getCount(Metric.SOLVE));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package model;
+
+/**
+ * Everything the game needs to know to run one kind of puzzle: how typed
+ * answers are checked, what items do to it, which hint to show and how many
+ * coins it pays. Types are looked up with {@link PuzzleTypes#of}, so the panels
+ * never need to know which puzzle classes exist.
+ *
+ * @param <P> the puzzle class this type handles
+ */
+public final class PuzzleType<P extends Puzzle> {
+
+    public interface AnswerValidator<P extends Puzzle> {
+        // True if the answer solves the puzzle (and marks it solved)
+        boolean check(P puzzle, String answer);
+    }
+
+    public interface ItemHandler<P extends Puzzle> {
+        boolean use(P puzzle, GachaItem item);
+    }
+
+    public interface HintProvider<P extends Puzzle> {
+        String hint(P puzzle);
+    }
+
+    public interface RewardPolicy<P extends Puzzle> {
+        int reward(P puzzle);
+    }
+
+    // === SOLVE RESULT ===
+    public enum Outcome { SOLVED, WRONG, NEEDS_ITEM, ALREADY_SOLVED }
+
+    public static final class SolveResult {
+        private final Outcome outcome;
+        private final String message;
+        private final String hint;
+
+        SolveResult(Outcome outcome, String message, String hint) {
+            this.outcome = outcome;
+            this.message = message;
+            this.hint = hint;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public String getMessage() { return message; }
+        public String getHint() { return hint; } // only set for WRONG
+    }
+
+    private final String name;
+    private final Class<P> puzzleClass;
+    private final AnswerValidator<P> validator; // null: can't be solved by typing
+    private final String noAnswerMessage;
+    private final ItemHandler<P> itemHandler;
+    private final HintProvider<P> hintProvider;
+    private final RewardPolicy<P> rewardPolicy;
+
+    public PuzzleType(String name, Class<P> puzzleClass, AnswerValidator<P> validator, String noAnswerMessage,
+                      ItemHandler<P> itemHandler, HintProvider<P> hintProvider, RewardPolicy<P> rewardPolicy) {
+        if (name == null || puzzleClass == null || itemHandler == null || hintProvider == null || rewardPolicy == null) {
+            throw new IllegalArgumentException("Puzzle type needs a name, class, item handler, hint provider and reward policy");
+        }
+        this.name = name;
+        this.puzzleClass = puzzleClass;
+        this.validator = validator;
+        this.noAnswerMessage = noAnswerMessage;
+        this.itemHandler = itemHandler;
+        this.hintProvider = hintProvider;
+        this.rewardPolicy = rewardPolicy;
+    }
+
+    // Solved by typing an answer; items, hints and rewards work as for any puzzle
+    public static <P extends Puzzle> PuzzleType<P> answered(String name, Class<P> puzzleClass,
+                                                           AnswerValidator<P> validator) {
+        return new PuzzleType<>(name, puzzleClass, validator, null,
+                (puzzle, item) -> item.use(puzzle), Puzzle::getProgressiveHint, Puzzle::getCoinReward);
+    }
+
+    // Only solved with items; typing an answer shows the message instead
+    public static <P extends Puzzle> PuzzleType<P> itemOnly(String name, Class<P> puzzleClass, String noAnswerMessage) {
+        return new PuzzleType<>(name, puzzleClass, null, noAnswerMessage,
+                (puzzle, item) -> item.use(puzzle), Puzzle::getProgressiveHint, Puzzle::getCoinReward);
+    }
+
+    // === PIPELINE ===
+    /**
+     * Checks a typed answer. A wrong answer counts as an attempt and comes back
+     * with the hint to show next.
+     */
+    public SolveResult submitAnswer(Puzzle puzzle, String answer) {
+        P typed = puzzleClass.cast(puzzle);
+        if (typed.isSolved()) {
+            return new SolveResult(Outcome.ALREADY_SOLVED, "This puzzle is already solved!", null);
+        }
+        if (validator == null) {
+            return new SolveResult(Outcome.NEEDS_ITEM, noAnswerMessage, null);
+        }
+        if (validator.check(typed, answer)) {
+            return new SolveResult(Outcome.SOLVED, "🎉 PUZZLE SOLVED!", null);
+        }
+
+        typed.recordAttempt();
+        return new SolveResult(Outcome.WRONG,
+                "Incorrect " + name + "! Try again. Attempts: " + typed.getAttempts(),
+                hintProvider.hint(typed));
+    }
+
+    public boolean useItem(Puzzle puzzle, GachaItem item) {
+        return itemHandler.use(puzzleClass.cast(puzzle), item);
+    }
+
+    public String hint(Puzzle puzzle) {
+        return hintProvider.hint(puzzleClass.cast(puzzle));
+    }
+
+    public int reward(Puzzle puzzle) {
+        return rewardPolicy.reward(puzzleClass.cast(puzzle));
+    }
+
+    public boolean acceptsAnswers() { return validator != null; }
+    public String getName() { return name; }
+    public Class<P> getPuzzleClass() { return puzzleClass; }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of puzzle types by puzzle class. The type for a class is found once
+ * (walking up to the nearest registered superclass) and then cached per class,
+ * so each dispatch is a single table lookup.
+ */
+public final class PuzzleTypes {
+    private static final Map<Class<?>, PuzzleType<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    private static final ClassValue<PuzzleType<?>> BY_CLASS = new ClassValue<PuzzleType<?>>() {
+        @Override
+        protected PuzzleType<?> computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                PuzzleType<?> registered = REGISTERED.get(c);
+                if (registered != null) return registered;
+            }
+            throw new IllegalStateException("No puzzle type registered for " + type.getName());
+        }
+    };
+
+    static {
+        register(PuzzleType.itemOnly("puzzle", Puzzle.class,
+                "🧩 This puzzle can't be solved by typing an answer. Try an item from your inventory."));
+        register(PuzzleType.answered("riddle", RiddlePuzzle.class, RiddlePuzzle::checkAnswer));
+        register(PuzzleType.answered("code", CodePuzzle.class, CodePuzzle::validateCode));
+        register(PuzzleType.itemOnly("lock", LockPuzzle.class,
+                "🔒 This is a lock puzzle! You need to use a key item from your inventory."));
+    }
+
+    private PuzzleTypes() {}
+
+    /**
+     * Adds or replaces the type for a puzzle class. Register new kinds before
+     * their puzzles are first used, lookups are cached per class.
+     */
+    public static void register(PuzzleType<?> type) {
+        REGISTERED.put(type.getPuzzleClass(), type);
+    }
+
+    public static PuzzleType<?> of(Puzzle puzzle) {
+        return BY_CLASS.get(puzzle.getClass());
+    }
+}
@@ -1,9 +1,16 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
 public class RiddlePuzzle extends Puzzle{
+    private static final long serialVersionUID = -9099725301977011636L; // value from before it was declared
     private String question;
     private String answer;
     private String hint;
+    private String[] alternateAnswers; // other accepted wordings, null when there are none
+    private transient AnswerMatcher matcher; // compiled from answer + alternateAnswers
 
     public RiddlePuzzle(String description, int coinReward, int difficultyLevel,
                         String riddleQuestion, String answer, String hint, boolean requiresGachaItem){
@@ -11,6 +18,20 @@ public class RiddlePuzzle extends Puzzle{
         this.question = riddleQuestion;
         this.answer = answer;
         this.hint = hint; // Store the hint for tool usage
+        this.matcher = AnswerMatcher.forgiving(answer, null);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        matcher = AnswerMatcher.forgiving(answer, alternateAnswers);
+    }
+
+    // Another wording that also counts as correct, e.g. "rebuild the machine"
+    public void addAlternateAnswer(String alternate) {
+        alternateAnswers = alternateAnswers == null ? new String[] {alternate}
+                : Arrays.copyOf(alternateAnswers, alternateAnswers.length + 1);
+        alternateAnswers[alternateAnswers.length - 1] = alternate;
+        matcher = AnswerMatcher.forgiving(answer, alternateAnswers);
     }
 
     public RiddlePuzzle(String description, int coinReward, int difficultyLevel,
@@ -32,8 +53,19 @@ public class RiddlePuzzle extends Puzzle{
         return false;
     }
 
+    @Override
+    public long getToolMask() {
+        return super.getToolMask() | Capability.HINTBOOK;
+    }
+
+    @Override
+    public long getHelpfulMask() {
+        return super.getHelpfulMask() | Capability.HINTBOOK;
+    }
+
+    // Case, spacing and punctuation don't matter and a small typo is forgiven, see AnswerMatcher
     public boolean checkAnswer(String playerAnswer){
-        if(playerAnswer.equalsIgnoreCase(answer)) {
+        if(matcher.matches(playerAnswer)) {
             markSolved();
             return true;
         }
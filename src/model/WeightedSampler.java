@@ -0,0 +1,120 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Weighted random choice over a fixed number of slots, backed by a Fenwick tree.
+ * Drawing is O(log n) and takes no lock: the weights and tree are an immutable
+ * snapshot published through a volatile field. Changing a weight copies the
+ * snapshot (O(n)) and swaps it in, so a rate-up can bump single items without
+ * ever blocking pulls running at the same time.
+ */
+public class WeightedSampler {
+    private final int highestBit;
+    private volatile Tree tree;
+
+    // Never modified once published
+    private static final class Tree {
+        final double[] weights;
+        final double[] sums; // 1-based Fenwick tree of the weights
+        final double total;
+
+        Tree(double[] weights, double[] sums, double total) {
+            this.weights = weights;
+            this.sums = sums;
+            this.total = total;
+        }
+    }
+
+    public WeightedSampler(double[] initialWeights) {
+        int n = initialWeights.length;
+        double[] weights = new double[n];
+        double[] sums = new double[n + 1];
+        double total = 0.0;
+
+        // O(n) build: add each node into its parent once
+        for (int i = 0; i < n; i++) {
+            double weight = checkWeight(initialWeights[i]);
+            weights[i] = weight;
+            sums[i + 1] += weight;
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= n) sums[parent] += sums[i + 1];
+            total += weight;
+        }
+        this.highestBit = n == 0 ? 0 : Integer.highestOneBit(n);
+        this.tree = new Tree(weights, sums, total);
+    }
+
+    public static WeightedSampler uniform(int size) {
+        double[] weights = new double[size];
+        Arrays.fill(weights, 1.0);
+        return new WeightedSampler(weights);
+    }
+
+    public int size() {
+        return tree.weights.length;
+    }
+
+    public double getWeight(int index) {
+        return tree.weights[index];
+    }
+
+    public double getTotalWeight() {
+        return tree.total;
+    }
+
+    // All weights from one snapshot, for callers that need them consistent with each other
+    public double[] getWeights() {
+        return tree.weights.clone();
+    }
+
+    // Writers are serialized with each other, readers never wait for them
+    public synchronized void setWeight(int index, double weight) {
+        Tree current = tree;
+        double delta = checkWeight(weight) - current.weights[index];
+        if (delta == 0.0) return;
+
+        double[] weights = current.weights.clone();
+        double[] sums = current.sums.clone();
+        weights[index] = weight;
+        for (int i = index + 1; i < sums.length; i += i & -i) {
+            sums[i] += delta;
+        }
+        tree = new Tree(weights, sums, current.total + delta);
+    }
+
+    /**
+     * Picks a slot with probability weight / total using one uniform roll in [0, 1).
+     * Returns -1 if every weight is zero.
+     */
+    public int sample(double roll) {
+        Tree current = tree;
+        double[] weights = current.weights;
+        double[] sums = current.sums;
+        if (current.total <= 0.0) return -1;
+
+        // Walk down the tree looking for the first prefix sum above the target
+        double target = roll * current.total;
+        int position = 0;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < sums.length && sums[next] <= target) {
+                position = next;
+                target -= sums[next];
+            }
+        }
+
+        // Rounding can land on a zero-weight slot or past the end, step to a real one
+        if (position >= weights.length) position = weights.length - 1;
+        while (position > 0 && weights[position] == 0.0) position--;
+        while (position < weights.length - 1 && weights[position] == 0.0) position++;
+        return position;
+    }
+
+    private static double checkWeight(double weight) {
+        if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Invalid item weight: " + weight);
+        }
+        return weight;
+    }
+}
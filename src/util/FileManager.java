@@ -5,6 +5,9 @@ import model.Player;
 import model.Room;
 import model.Puzzle;
 import model.GachaItem;
+import model.LegacyPoolItems;
+import model.PlayerHistory;
+import model.PuzzleTimings;
 import exceptions.SaveFileCorruptedException;
 
 import java.io.*;
@@ -12,14 +15,20 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Date;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 public class FileManager {
     private static final String SAVE_FILE_NAME = "game_save.ser";
+    private static final String HISTORY_FILE_NAME = "game_save.events"; // player events since SAVE_FILE_NAME was written
+    private static final String HISTORY_ARCHIVE = "saves/game_history.events"; // every finished HISTORY_FILE_NAME, oldest first
+    private static final int HISTORY_MAGIC = 0x4C444556; // header: magic, then the id of the save it continues
+    private static final Object HISTORY_LOCK = new Object(); // history is appended from a background thread
     private static final String BACKUP_FILE_PREFIX = "game_save_backup_";
     private static final String BACKUP_DIR = "saves/backups/";
     private static final int MAX_BACKUPS = 5;
@@ -57,6 +66,8 @@ public class FileManager {
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SAVE_FILE_NAME))) {
             oos.writeObject(game);
             System.out.println("✅ Game saved successfully: " + SAVE_FILE_NAME);
+            startNewHistory(game);
+            savePuzzleTimings();
 
         } catch (NotSerializableException e) {
             System.err.println("❌ Serialization failed: " + e.getMessage());
@@ -174,11 +185,12 @@ public class FileManager {
 
         System.out.println("📂 Loading game from: " + SAVE_FILE_NAME);
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(SAVE_FILE_NAME))) {
+        try (ObjectInputStream ois = new SaveInputStream(new FileInputStream(SAVE_FILE_NAME))) {
             GameManager loadedGame = (GameManager) ois.readObject();
 
             // ✅ Use the new restore method
             targetGame.restoreGameState(loadedGame);
+            replayHistory(targetGame, snapshotId(saveFile));
 
             System.out.println("✅ Game loaded successfully!");
             return true;
@@ -190,6 +202,152 @@ public class FileManager {
         }
     }
 
+    // Reads saves written by older versions too, see LegacyPoolItems
+    private static final class SaveInputStream extends ObjectInputStream {
+        SaveInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            return LegacyPoolItems.substitute(super.readClassDescriptor());
+        }
+    }
+
+    // === PLAYER HISTORY ===
+    /**
+     * Appends the player's coin and item events since the last call to the
+     * history file, instead of writing the whole game again. Needs a full save
+     * of this game to build on; a new game writes nothing until it is saved.
+     */
+    public void saveHistory(GameManager game) throws SaveFileCorruptedException {
+        if (game == null || game.getCurrentPlayer() == null) {
+            throw new SaveFileCorruptedException("Cannot save history of null game");
+        }
+
+        PlayerHistory history = game.getCurrentPlayer().getHistory();
+        synchronized (HISTORY_LOCK) {
+            long snapshotId = history.getSnapshotId();
+            if (history.unsavedCount() == 0 || snapshotId == 0) {
+                return;
+            }
+
+            File historyFile = new File(HISTORY_FILE_NAME);
+            try {
+                boolean newFile = historyFile.length() == 0;
+                if (!newFile && readHistoryHeader(historyFile) != snapshotId) {
+                    System.err.println("⚠️ " + HISTORY_FILE_NAME + " belongs to another save, not appending to it");
+                    return;
+                }
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(historyFile, true)))) {
+                    if (newFile) {
+                        out.writeInt(HISTORY_MAGIC);
+                        out.writeLong(snapshotId);
+                    }
+                    history.writeNewEvents(out);
+                }
+            } catch (IOException e) {
+                throw new SaveFileCorruptedException("Failed to save player history: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Timing histograms live in their own file and add up over every session, see PuzzleTimings
+    private void savePuzzleTimings() {
+        try {
+            PuzzleTimings.global().save();
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not save puzzle timings: " + e.getMessage());
+        }
+    }
+
+    // A full save contains everything, the old events would be applied twice; they move to the archive
+    private void startNewHistory(GameManager game) throws IOException {
+        synchronized (HISTORY_LOCK) {
+            archiveHistory();
+            deleteHistory();
+            if (game.getCurrentPlayer() != null) {
+                game.getCurrentPlayer().getHistory().clear(snapshotId(new File(SAVE_FILE_NAME)));
+            }
+        }
+    }
+
+    // Appends the events file, header and all, to the archive: an append-only record across full saves
+    private void archiveHistory() {
+        File historyFile = new File(HISTORY_FILE_NAME);
+        if (historyFile.length() <= 12) { // header only
+            return;
+        }
+        try {
+            Path archive = Paths.get(HISTORY_ARCHIVE);
+            Files.createDirectories(archive.getParent());
+            try (OutputStream out = Files.newOutputStream(archive, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                Files.copy(historyFile.toPath(), out);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not archive " + HISTORY_FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteHistory() {
+        File historyFile = new File(HISTORY_FILE_NAME);
+        if (historyFile.exists() && !historyFile.delete()) {
+            System.err.println("⚠️ Could not delete old history: " + HISTORY_FILE_NAME);
+        }
+    }
+
+    // Events written on top of another save (an older one, a restored backup) are dropped, not replayed
+    private void replayHistory(GameManager game, long snapshotId) throws IOException {
+        Player player = game.getCurrentPlayer();
+        if (player == null) {
+            return;
+        }
+
+        synchronized (HISTORY_LOCK) {
+            File historyFile = new File(HISTORY_FILE_NAME);
+            if (historyFile.length() == 0) {
+                player.getHistory().clear(snapshotId);
+                return;
+            }
+            if (readHistoryHeader(historyFile) != snapshotId) {
+                System.err.println("⚠️ " + HISTORY_FILE_NAME + " does not belong to this save, discarding it");
+                deleteHistory();
+                player.getHistory().clear(snapshotId);
+                return;
+            }
+
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(historyFile)))) {
+                in.skipBytes(12); // header
+                int applied = player.getHistory().readAndReplay(in, player, snapshotId, game::replayPuzzleSolved);
+                System.out.println("📜 Replayed " + applied + " events since the last save");
+            }
+        }
+    }
+
+    // The snapshot id a history file was started for, 0 if it has no valid header
+    private static long readHistoryHeader(File historyFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(historyFile))) {
+            return in.readInt() == HISTORY_MAGIC ? in.readLong() : 0;
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+
+    // Identifies one written save file: its length and CRC, never 0
+    private static long snapshotId(File saveFile) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(saveFile))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return (saveFile.length() << 32) ^ crc.getValue() | 1L << 63;
+    }
+
     private void replaceGameStateCompletely(GameManager source, GameManager target) {
         try {
             System.out.println("🔄 COMPLETELY REPLACING GAME STATE...");
@@ -225,9 +383,7 @@ public class FileManager {
             }
 
             // Set current room index
-            java.lang.reflect.Field roomIndexField = GameManager.class.getDeclaredField("currentRoomIndex");
-            roomIndexField.setAccessible(true);
-            roomIndexField.set(target, source.getCurrentRoomIndex());
+            target.setCurrentRoomIndex(source.getCurrentRoomIndex());
 
             // Replace player completely
             Player sourcePlayer = source.getCurrentPlayer();
@@ -246,27 +402,8 @@ public class FileManager {
     }
 
     private void replacePlayerState(Player source, Player target) {
-        try {
-            // Use reflection to copy all fields
-            java.lang.reflect.Field[] fields = Player.class.getDeclaredFields();
-
-            for (java.lang.reflect.Field field : fields) {
-                // Skip static and transient fields
-                if (java.lang.reflect.Modifier.isStatic(field.getModifiers()) ||
-                        java.lang.reflect.Modifier.isTransient(field.getModifiers())) {
-                    continue;
-                }
-
-                field.setAccessible(true);
-                Object value = field.get(source);
-                field.set(target, value);
-            }
-
-            System.out.println("✅ Player state replaced. Name: " + target.getName());
-
-        } catch (Exception e) {
-            System.err.println("❌ Error replacing player state: " + e.getMessage());
-        }
+        target.copyStateFrom(source);
+        System.out.println("✅ Player state replaced. Name: " + target.getName());
     }
 
     /**
@@ -329,6 +466,9 @@ public class FileManager {
             createBackup(); // Backup before deletion
 
             if (saveFile.delete()) {
+                synchronized (HISTORY_LOCK) {
+                    deleteHistory();
+                }
                 System.out.println("✅ Save file deleted: " + SAVE_FILE_NAME);
             } else {
                 throw new SaveFileCorruptedException("Failed to delete save file: " + SAVE_FILE_NAME);
@@ -541,6 +681,8 @@ public class FileManager {
                 oos.writeObject(game);
                 System.out.println("✅ Game saved: " + SAVE_FILE_NAME);
             }
+            startNewHistory(game);
+            savePuzzleTimings();
 
             // 3. Create human-readable summary
             String summary = createSaveSummary(game);
@@ -0,0 +1,242 @@
+package util;
+
+import exceptions.InvalidPoolFileException;
+import model.Capability;
+import model.GachaItem;
+import model.ItemDefinition;
+import model.JunkItem;
+import model.KeyItem;
+import model.Rarity;
+import model.ToolItem;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads the gacha pools from a pipe separated text file (see data/gacha_pools.txt).
+ * A copy of the file next to the game (POOL_FILE) wins over the bundled one and
+ * is watched, so balance changes reach running machines without a restart.
+ */
+public class GachaPoolLoader {
+    public static final String POOL_FILE = "data/gacha_pools.txt";
+    private static final String POOL_RESOURCE = "data/gacha_pools.txt";
+    private static final long RELOAD_DELAY_MS = 200; // editors often write a file twice
+
+    /**
+     * Reads the pools, keyed by room number (1-based), items in file order.
+     */
+    public static Map<Integer, List<GachaItem>> loadPools() throws InvalidPoolFileException {
+        File override = new File(POOL_FILE);
+        try {
+            if (override.isFile()) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(override), StandardCharsets.UTF_8)) {
+                    return parse(reader);
+                }
+            }
+
+            InputStream bundled = GachaPoolLoader.class.getClassLoader().getResourceAsStream(POOL_RESOURCE);
+            if (bundled == null) {
+                throw new InvalidPoolFileException("Gacha pool file missing: " + POOL_RESOURCE, null);
+            }
+            try (Reader reader = new InputStreamReader(bundled, StandardCharsets.UTF_8)) {
+                return parse(reader);
+            }
+        } catch (IOException e) {
+            throw new InvalidPoolFileException("Could not read gacha pool file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses the whole file before creating any item, so a file that fails on
+     * a later line has not used up Capability bits for its earlier ones.
+     */
+    public static Map<Integer, List<GachaItem>> parse(Reader source) throws IOException, InvalidPoolFileException {
+        Map<Integer, List<Supplier<GachaItem>>> entries = new TreeMap<>();
+        BufferedReader reader = new BufferedReader(source);
+        Set<String> newCapabilities = new HashSet<>(); // tool types and key colours without a Capability bit yet
+        int spareBits = Capability.spareBits();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] fields = line.split("\\|", -1);
+            if (fields.length < 6) {
+                throw new InvalidPoolFileException(lineNumber, "expected at least 6 fields, found " + fields.length);
+            }
+            for (int i = 0; i < fields.length; i++) fields[i] = fields[i].trim();
+
+            int room = parseInt(fields[0], lineNumber, "room");
+            String kind = fields[1].toUpperCase();
+            String name = fields[2];
+            String description = fields[3];
+            Rarity rarity = parseRarity(fields[4], lineNumber);
+            String detail = fields[5];
+            String value = fields.length > 6 ? fields[6] : "";
+
+            if (name.isEmpty()) {
+                throw new InvalidPoolFileException(lineNumber, "item name is empty");
+            }
+
+            Supplier<GachaItem> item;
+            switch (kind) {
+                case "TOOL":
+                    checkCapability(Capability.tool(detail), "tool:" + detail, newCapabilities, spareBits, lineNumber);
+                    int uses = parseInt(value, lineNumber, "uses");
+                    if (uses < 0 || uses > ItemDefinition.MAX_TOOL_USES) {
+                        throw new InvalidPoolFileException(lineNumber, "uses must be 0 to " + ItemDefinition.MAX_TOOL_USES + ", found " + uses);
+                    }
+                    item = () -> new ToolItem(name, description, rarity, detail, uses);
+                    break;
+                case "KEY":
+                    checkCapability(Capability.keyColor(detail), "key:" + detail, newCapabilities, spareBits, lineNumber);
+                    boolean masterKey = Boolean.parseBoolean(value);
+                    item = () -> new KeyItem(name, description, rarity, detail, masterKey);
+                    break;
+                case "JUNK":
+                    item = () -> new JunkItem(name, description, rarity, detail);
+                    break;
+                default:
+                    throw new InvalidPoolFileException(lineNumber, "unknown item kind '" + fields[1] + "'");
+            }
+
+            entries.computeIfAbsent(room, r -> new ArrayList<>()).add(item);
+        }
+
+        Map<Integer, List<GachaItem>> pools = new TreeMap<>();
+        for (Map.Entry<Integer, List<Supplier<GachaItem>>> entry : entries.entrySet()) {
+            List<GachaItem> pool = new ArrayList<>(entry.getValue().size());
+            for (Supplier<GachaItem> item : entry.getValue()) pool.add(item.get());
+            pools.put(entry.getKey(), pool);
+        }
+        return pools;
+    }
+
+    // Capability has 64 bits for all tool types and key colours; reject the line that would need one more
+    private static void checkCapability(long existingBit, String name, Set<String> newCapabilities,
+                                        int spareBits, int lineNumber) throws InvalidPoolFileException {
+        if (existingBit != 0 || newCapabilities.contains(name)) return;
+        if (newCapabilities.size() >= spareBits) {
+            throw new InvalidPoolFileException(lineNumber, "too many distinct tool types and key colours, no capability left for '"
+                    + name.substring(name.indexOf(':') + 1) + "'");
+        }
+        newCapabilities.add(name);
+    }
+
+    private static int parseInt(String text, int lineNumber, String field) throws InvalidPoolFileException {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new InvalidPoolFileException(lineNumber, field + " is not a number: '" + text + "'");
+        }
+    }
+
+    private static Rarity parseRarity(String text, int lineNumber) throws InvalidPoolFileException {
+        try {
+            return Rarity.valueOf(text.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPoolFileException(lineNumber, "unknown rarity '" + text + "'");
+        }
+    }
+
+    // The bundled file when the classpath is a plain directory (running from the IDE or src/), else null
+    private static Path bundledFile() {
+        URL url = GachaPoolLoader.class.getClassLoader().getResource(POOL_RESOURCE);
+        if (url == null || !"file".equals(url.getProtocol())) return null;
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // === HOT RELOAD ===
+    /**
+     * Watches the pool files on a daemon thread and hands every successfully
+     * parsed version to the listener: POOL_FILE next to the game, and the
+     * bundled file too when it is a plain file. If neither exists the POOL_FILE
+     * directory is created, so dropping a file in there takes effect right away.
+     * A broken edit is reported and ignored, the machines keep their current
+     * pools. Returns null if there is nothing to watch.
+     */
+    public static Thread watch(Consumer<Map<Integer, List<GachaItem>>> listener) {
+        Set<Path> poolFiles = new LinkedHashSet<>();
+        Path override = Paths.get(POOL_FILE).toAbsolutePath().normalize();
+        Path bundled = bundledFile();
+        if (bundled != null) poolFiles.add(bundled);
+        if (Files.isDirectory(override.getParent()) || bundled == null) {
+            try {
+                Files.createDirectories(override.getParent());
+                poolFiles.add(override);
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not create " + override.getParent() + ": " + e.getMessage());
+            }
+        }
+        if (poolFiles.isEmpty()) {
+            return null;
+        }
+
+        Thread watcher = new Thread(() -> {
+            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                Set<Path> directories = new LinkedHashSet<>();
+                for (Path poolFile : poolFiles) directories.add(poolFile.getParent());
+                for (Path directory : directories) {
+                    directory.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey key = watchService.take();
+                    Path directory = (Path) key.watchable();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        if (context instanceof Path && poolFiles.contains(directory.resolve((Path) context))) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+
+                    if (changed) {
+                        Thread.sleep(RELOAD_DELAY_MS);
+                        reloadInto(listener);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("⚠️ Gacha pool watcher stopped: " + e.getMessage());
+            }
+        }, "gacha-pool-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        return watcher;
+    }
+
+    private static void reloadInto(Consumer<Map<Integer, List<GachaItem>>> listener) {
+        try {
+            listener.accept(loadPools());
+            System.out.println("🔄 Gacha pools reloaded from " + (new File(POOL_FILE).isFile() ? POOL_FILE : POOL_RESOURCE));
+        } catch (InvalidPoolFileException e) {
+            System.err.println("⚠️ Gacha pool reload skipped: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Whatever the new pools broke, the watcher has to keep running for the next edit
+            System.err.println("⚠️ Gacha pool reload failed, keeping the current pools: " + e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary journal of gacha pulls, kept apart from game_save.ser.
+ * Records are fixed size and live in memory-mapped segment files. Appending
+ * reserves a slot with a single atomic increment and writes straight into the
+ * mapping, so writers never lock and never wait for disk I/O. Only the
+ * segment being written stays mapped; rolling to the next one releases it.
+ *
+ * Record layout (32 bytes, big endian):
+ *   long  sequence
+ *   long  timestamp (epoch millis, written last, 0 = empty slot)
+ *   int   machine id
+ *   int   item id, ItemDefinition.getStableId() (-1 = nothing)
+ *   int   coin balance after the pull
+ *   byte  rarity ordinal (-1 = nothing)
+ *   byte  pity counter before
+ *   byte  pity counter after
+ *   byte  flags (bit 0 = pity pull)
+ */
+public class PullJournal {
+    public static final String DEFAULT_DIR = "saves/journal/";
+    public static final int RECORD_SIZE = 32;
+    public static final int RECORDS_PER_SEGMENT = 32_768; // 1 MiB per segment
+    private static final long SEGMENT_SIZE = (long) RECORD_SIZE * RECORDS_PER_SEGMENT;
+    private static final String SEGMENT_PREFIX = "pulls-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final File directory;
+    private final AtomicLong nextSequence;
+
+    // The only segment kept mapped; index and buffer published together
+    private final AtomicReference<Segment> currentSegment = new AtomicReference<>();
+
+    private static final class Segment {
+        final long index;
+        final MappedByteBuffer buffer;
+
+        Segment(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+
+    private PullJournal(File directory, long nextSequence, Segment current) {
+        this.directory = directory;
+        this.nextSequence = new AtomicLong(nextSequence);
+        this.currentSegment.set(current);
+    }
+
+    public static PullJournal open() throws IOException {
+        return open(new File(DEFAULT_DIR));
+    }
+
+    /**
+     * Opens (or creates) a journal and continues after the last written record.
+     * Call {@link #close()} when done, e.g. from a shutdown hook.
+     */
+    public static PullJournal open(File directory) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory: " + directory);
+        }
+
+        long[] existing = listSegments(directory);
+        if (existing.length == 0) {
+            return new PullJournal(directory, 0, null);
+        }
+
+        long last = existing[existing.length - 1];
+        MappedByteBuffer buffer = map(segmentFile(directory, last));
+        // Continue after the last written slot; a crash can leave reserved but empty slots before it
+        int used = RECORDS_PER_SEGMENT;
+        while (used > 0 && buffer.getLong((used - 1) * RECORD_SIZE + 8) == 0L) {
+            used--;
+        }
+        // A full last segment is not kept mapped, the next append maps a new one
+        Segment current = used < RECORDS_PER_SEGMENT ? new Segment(last, buffer) : null;
+        return new PullJournal(directory, last * RECORDS_PER_SEGMENT + used, current);
+    }
+
+    /**
+     * Appends one pull. Safe to call from any number of threads.
+     */
+    public void append(int machineId, int rarity, int itemId, int pityBefore, int pityAfter,
+                       boolean pityPull, int coinBalance) {
+        long sequence = nextSequence.getAndIncrement();
+        long segmentIndex = sequence / RECORDS_PER_SEGMENT;
+        int offset = (int) (sequence % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+
+        MappedByteBuffer buffer;
+        boolean straggler = false;
+        try {
+            Segment current = currentSegment.get();
+            if (current != null && current.index == segmentIndex) {
+                buffer = current.buffer;
+            } else if (current != null && current.index > segmentIndex) {
+                // Reserved its slot just before a roll; map the old segment only for this write
+                buffer = map(segmentFile(directory, segmentIndex));
+                straggler = true;
+            } else {
+                buffer = rollTo(segmentIndex);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Pull journal unavailable: " + e.getMessage());
+            return;
+        }
+
+        // Absolute puts only, so concurrent writers never touch each other's position
+        buffer.putLong(offset, sequence);
+        buffer.putInt(offset + 16, machineId);
+        buffer.putInt(offset + 20, itemId);
+        buffer.putInt(offset + 24, coinBalance);
+        buffer.put(offset + 28, (byte) rarity);
+        buffer.put(offset + 29, (byte) pityBefore);
+        buffer.put(offset + 30, (byte) pityAfter);
+        buffer.put(offset + 31, (byte) (pityPull ? 1 : 0));
+        buffer.putLong(offset + 8, System.currentTimeMillis()); // marks the slot as written
+
+        if (straggler) buffer.force();
+    }
+
+    // Maps the new segment and moves the current one forward, never back; the old mapping is forced and dropped
+    private MappedByteBuffer rollTo(long segmentIndex) throws IOException {
+        MappedByteBuffer buffer = map(segmentFile(directory, segmentIndex));
+        Segment next = new Segment(segmentIndex, buffer);
+        Segment current = currentSegment.get();
+        while (current == null || current.index < segmentIndex) {
+            if (currentSegment.compareAndSet(current, next)) {
+                if (current != null) current.buffer.force();
+                return buffer;
+            }
+            current = currentSegment.get();
+        }
+        // Another writer rolled first; its mapping wins if it is this segment
+        return current.index == segmentIndex ? current.buffer : buffer;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        }
+    }
+
+    public void flush() {
+        Segment current = currentSegment.get();
+        if (current != null) current.buffer.force();
+    }
+
+    // Flushes and releases the mapping; a later append maps its segment again
+    public void close() {
+        Segment current = currentSegment.getAndSet(null);
+        if (current != null) current.buffer.force();
+    }
+
+    public long getRecordCount() {
+        return nextSequence.get();
+    }
+
+    // === READING (auditing) ===
+    /**
+     * Reads every written record in order. Intended for offline auditing.
+     */
+    public static void readAll(File directory, Consumer<PullRecord> consumer) throws IOException {
+        for (long segmentIndex : listSegments(directory)) {
+            MappedByteBuffer buffer = map(segmentFile(directory, segmentIndex));
+            for (int slot = 0; slot < RECORDS_PER_SEGMENT; slot++) {
+                int offset = slot * RECORD_SIZE;
+                long timestamp = buffer.getLong(offset + 8);
+                if (timestamp == 0L) continue; // reserved but never written, or unused
+
+                consumer.accept(new PullRecord(
+                        buffer.getLong(offset),
+                        timestamp,
+                        buffer.getInt(offset + 16),
+                        buffer.getInt(offset + 20),
+                        buffer.getInt(offset + 24),
+                        buffer.get(offset + 28),
+                        buffer.get(offset + 29),
+                        buffer.get(offset + 30),
+                        (buffer.get(offset + 31) & 1) != 0));
+            }
+        }
+    }
+
+    private static long[] listSegments(File directory) {
+        File[] files = directory.listFiles((dir, name) ->
+                name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) return new long[0];
+
+        long[] indexes = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            String name = files[i].getName();
+            indexes[i] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                    name.length() - SEGMENT_SUFFIX.length()));
+        }
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    private static File segmentFile(File directory, long segmentIndex) {
+        return new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * One decoded journal entry.
+     */
+    public static class PullRecord {
+        public final long sequence;
+        public final long timestamp;
+        public final int machineId;
+        public final int itemId;
+        public final int coinBalance;
+        public final int rarity;
+        public final int pityBefore;
+        public final int pityAfter;
+        public final boolean pityPull;
+
+        PullRecord(long sequence, long timestamp, int machineId, int itemId, int coinBalance,
+                   int rarity, int pityBefore, int pityAfter, boolean pityPull) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.machineId = machineId;
+            this.itemId = itemId;
+            this.coinBalance = coinBalance;
+            this.rarity = rarity;
+            this.pityBefore = pityBefore;
+            this.pityAfter = pityAfter;
+            this.pityPull = pityPull;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hands out deterministic random streams for one game session.
+ * Every gacha machine (and any other consumer) gets its own stream derived from
+ * the session seed and a stable key, so the same seed replays the same results
+ * no matter in which order the streams are created.
+ */
+public class RandomProvider {
+    private final long sessionSeed;
+    private final SplittableRandom sessionRandom;
+
+    public RandomProvider() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    public RandomProvider(long sessionSeed) {
+        this.sessionSeed = sessionSeed;
+        this.sessionRandom = forKey("session");
+    }
+
+    /**
+     * Shared stream for session level randomness (room transitions, puzzles).
+     * Not thread-safe, like everything else that runs on the UI thread.
+     */
+    public SplittableRandom session() {
+        return sessionRandom;
+    }
+
+    public SplittableRandom forMachine(String machineName) {
+        return forKey("machine:" + machineName);
+    }
+
+    // A fresh, independent stream for the given key
+    public SplittableRandom forKey(String key) {
+        return new SplittableRandom(mix(sessionSeed + 0x9E3779B97F4A7C15L * key.hashCode()));
+    }
+
+    public long getSessionSeed() {
+        return sessionSeed;
+    }
+
+    // MurmurHash3 finaliser, spreads nearby seeds far apart
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
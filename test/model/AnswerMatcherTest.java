@@ -0,0 +1,59 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerMatcherTest {
+
+    @Test
+    void ignoresCaseSpacingAndPunctuation() {
+        AnswerMatcher matcher = AnswerMatcher.exact("rebuild machine", null);
+        assertTrue(matcher.matches("Rebuild  Machine"));
+        assertTrue(matcher.matches("rebuild-machine"));
+        assertTrue(matcher.matches("  REBUILD MACHINE!"));
+        assertFalse(matcher.matches("rebuild machines"));
+    }
+
+    @Test
+    void dropsLeadingZerosOnlyAtTheStartOfANumber() {
+        AnswerMatcher matcher = AnswerMatcher.exact("1:00", null);
+        assertTrue(matcher.matches("01:00"));
+        assertTrue(matcher.matches("1:00 "));
+        assertFalse(matcher.matches("1:0"));
+        assertFalse(matcher.matches("1:05"));
+    }
+
+    @Test
+    void acceptsAlternates() {
+        AnswerMatcher matcher = AnswerMatcher.exact("1:00", new String[] {"13:00"});
+        assertTrue(matcher.matches("13:00"));
+        assertFalse(matcher.matches("14:00"));
+    }
+
+    @Test
+    void exactMatcherForgivesNoTypos() {
+        assertFalse(AnswerMatcher.exact("6792", null).matches("6793"));
+    }
+
+    @Test
+    void forgivingMatcherScalesWithAnswerLength() {
+        // Short words are too close to other words
+        assertFalse(AnswerMatcher.forgiving("clock", null).matches("block"));
+        // One typo from 7 letters on, two from 12
+        AnswerMatcher stabilizer = AnswerMatcher.forgiving("stabilizer", null);
+        assertTrue(stabilizer.matches("stabilizor"));
+        assertFalse(stabilizer.matches("stabliizer")); // a swap is two edits
+        assertTrue(stabilizer.matches("stabilize"));
+        assertFalse(stabilizer.matches("stabiliser!!x"));
+        AnswerMatcher timeline = AnswerMatcher.forgiving("rebuild the time machine", null);
+        assertTrue(timeline.matches("rebild the time mashine"));
+        assertFalse(timeline.matches("rebild teh time mashine"));
+    }
+
+    @Test
+    void rejectsNullInputAndNullAnswer() {
+        assertFalse(AnswerMatcher.exact("67", null).matches(null));
+        assertThrows(IllegalArgumentException.class, () -> AnswerMatcher.exact(null, null));
+    }
+}
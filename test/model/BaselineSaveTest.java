@@ -0,0 +1,67 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * baseline_save.ser was written by the game before the gacha pool file, when
+ * its junk items were anonymous classes of GameManager (see LegacyPoolItems).
+ */
+class BaselineSaveTest {
+
+    @Test
+    void oldAnonymousJunkItemsLoadAsJunkItems() throws Exception {
+        Player player = loadBaseline().getCurrentPlayer();
+
+        assertEquals("Time Traveler", player.getName());
+        assertEquals(380, player.getCoinBalance());
+
+        JunkItem watch = findJunk(player, "Distorted Watch");
+        JunkItem components = findJunk(player, "Melted Components");
+        assertEquals("The watch spins wildly... but reveals nothing useful.", watch.getDefinition().getDetail());
+        assertEquals("These components are useless... but show how difficult time travel is.",
+                components.getDefinition().getDetail());
+    }
+
+    @Test
+    void oldToolsKeepTheirUses() throws Exception {
+        Player player = loadBaseline().getCurrentPlayer();
+
+        GachaItem lockpick = null;
+        for (GachaItem item : player.getInventory()) {
+            if (item.getName().equals("Lockpick")) lockpick = item;
+        }
+        assertNotNull(lockpick);
+        assertTrue(lockpick instanceof ToolItem);
+        assertEquals("lockpick", ((ToolItem) lockpick).getToolType());
+        assertTrue(((ToolItem) lockpick).getUsesRemaining() > 0);
+    }
+
+    private static JunkItem findJunk(Player player, String name) {
+        for (GachaItem item : player.getInventory()) {
+            if (item.getName().equals(name)) {
+                assertTrue(item instanceof JunkItem, name + " loaded as " + item.getClass().getName());
+                return (JunkItem) item;
+            }
+        }
+        throw new AssertionError(name + " missing from the loaded inventory");
+    }
+
+    private static GameManager loadBaseline() throws Exception {
+        try (InputStream file = BaselineSaveTest.class.getResourceAsStream("baseline_save.ser");
+             ObjectInputStream in = new ObjectInputStream(file) {
+                 @Override
+                 protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+                     return LegacyPoolItems.substitute(super.readClassDescriptor());
+                 }
+             }) {
+            return (GameManager) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerHistoryTest {
+    private static final long SNAPSHOT = 42L;
+
+    @Test
+    void replayRebuildsThePlayerFromTheSameSnapshot() throws Exception {
+        Player original = new Player("Tester");
+        Player replayed = new Player("Tester"); // same state as the snapshot the events follow
+
+        original.earnCoins(50);
+        original.addItem(new ToolItem("Test Decoder", "d", Rarity.RARE, "decoder", 3));
+        original.addItem(new ToolItem("Test Decoder", "d", Rarity.RARE, "decoder", 3));
+        GachaItem junk = new JunkItem(ItemDefinition.junk("Test Junk", "d", Rarity.COMMON, "nothing"));
+        original.addItem(junk);
+        assertTrue(original.spendCoins(20));
+        original.recordPuzzleSolved(2, 1);
+        original.safeRemoveItem(junk);
+
+        List<String> solved = new ArrayList<>();
+        int applied = replay(original, replayed, (room, index) -> solved.add(room + ":" + index));
+
+        assertEquals(original.getHistory().size(), applied);
+        assertEquals(original.getCoinBalance(), replayed.getCoinBalance());
+        assertEquals(original.getTotalCoinsEarned(), replayed.getTotalCoinsEarned());
+        assertEquals(original.getTotalCoinsSpent(), replayed.getTotalCoinsSpent());
+        assertEquals(original.getCurrentInventorySize(), replayed.getCurrentInventorySize());
+        assertEquals(original.getTotalItemCount(), replayed.getTotalItemCount());
+        assertEquals(List.of("2:1"), solved);
+
+        GachaItem decoder = replayed.getInventory().get(0);
+        assertEquals("Test Decoder", decoder.getName());
+        assertEquals(3, ((ToolItem) decoder).getUsesRemaining());
+        assertEquals(2, replayed.getItemCount(decoder));
+    }
+
+    @Test
+    void writesOnlyNewEvents() throws Exception {
+        Player player = new Player("Tester");
+        player.earnCoins(10);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        player.getHistory().writeNewEvents(new DataOutputStream(first));
+        assertEquals(0, player.getHistory().unsavedCount());
+
+        player.earnCoins(5);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        player.getHistory().writeNewEvents(new DataOutputStream(second));
+        assertEquals(Long.BYTES, second.size()); // one event, no definitions repeated
+    }
+
+    @Test
+    void rejectsUnknownEvents() {
+        Player player = new Player("Tester");
+        byte[] garbage = {0, 0, 0, 0, 0, 0, 0, 14};
+        assertThrows(java.io.IOException.class, () -> player.getHistory().readAndReplay(
+                new DataInputStream(new ByteArrayInputStream(garbage)), player, SNAPSHOT, (room, index) -> { }));
+    }
+
+    private static int replay(Player source, Player target, PlayerHistory.PuzzleReplay puzzles) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        source.getHistory().writeNewEvents(new DataOutputStream(bytes));
+        return target.getHistory().readAndReplay(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), target, SNAPSHOT, puzzles);
+    }
+}
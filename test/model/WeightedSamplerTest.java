@@ -0,0 +1,57 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedSamplerTest {
+
+    @Test
+    void rollsMapToSlotsByWeight() {
+        WeightedSampler sampler = new WeightedSampler(new double[] {1.0, 2.0, 1.0});
+        assertEquals(4.0, sampler.getTotalWeight(), 1e-12);
+        assertEquals(0, sampler.sample(0.0));
+        assertEquals(0, sampler.sample(0.2));
+        assertEquals(1, sampler.sample(0.3));
+        assertEquals(1, sampler.sample(0.7));
+        assertEquals(2, sampler.sample(0.8));
+        assertEquals(2, sampler.sample(0.999999));
+    }
+
+    @Test
+    void neverPicksAZeroWeightSlot() {
+        WeightedSampler sampler = new WeightedSampler(new double[] {0.0, 1.0, 0.0, 0.0, 1.0, 0.0});
+        for (int i = 0; i < 1000; i++) {
+            int slot = sampler.sample(i / 1000.0);
+            assertTrue(slot == 1 || slot == 4, "picked slot " + slot);
+        }
+    }
+
+    @Test
+    void returnsMinusOneWithoutWeight() {
+        assertEquals(-1, new WeightedSampler(new double[] {0.0, 0.0}).sample(0.5));
+        assertEquals(-1, new WeightedSampler(new double[0]).sample(0.5));
+    }
+
+    @Test
+    void setWeightUpdatesTotalAndDraws() {
+        WeightedSampler sampler = WeightedSampler.uniform(4);
+        sampler.setWeight(3, 5.0);
+        assertEquals(8.0, sampler.getTotalWeight(), 1e-12);
+        assertEquals(5.0, sampler.getWeight(3), 0.0);
+        assertEquals(3, sampler.sample(0.5));
+        assertEquals(2, sampler.sample(0.3));
+
+        sampler.setWeight(3, 0.0);
+        assertEquals(3.0, sampler.getTotalWeight(), 1e-12);
+        assertEquals(2, sampler.sample(0.999999));
+    }
+
+    @Test
+    void rejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[] {-1.0}));
+        WeightedSampler sampler = WeightedSampler.uniform(2);
+        assertThrows(IllegalArgumentException.class, () -> sampler.setWeight(0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> sampler.setWeight(0, Double.POSITIVE_INFINITY));
+    }
+}